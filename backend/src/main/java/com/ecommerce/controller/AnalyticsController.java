@@ -0,0 +1,54 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.CategoryRevenueDto;
+import com.ecommerce.dto.HourlyOrdersDto;
+import com.ecommerce.service.SalesAnalyticsService;
+import com.ecommerce.service.SalesAnalyticsService.Ranking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/analytics")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    // 31 days
+    private static final int MAX_HOURS = 744;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/top-products")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam(defaultValue = "revenue") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        Ranking ranking;
+        try {
+            ranking = Ranking.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown ranking: " + by));
+        }
+        int clamped = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        return ResponseEntity.ok(salesAnalyticsService.findTopProducts(ranking, clamped));
+    }
+
+    @GetMapping("/revenue-by-category")
+    public ResponseEntity<List<CategoryRevenueDto>> getRevenueByCategory() {
+        return ResponseEntity.ok(salesAnalyticsService.findRevenueByCategory());
+    }
+
+    @GetMapping("/orders-per-hour")
+    public ResponseEntity<List<HourlyOrdersDto>> getOrdersPerHour(@RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(salesAnalyticsService.findOrdersPerHour(Math.max(1, Math.min(hours, MAX_HOURS))));
+    }
+}
@@ -5,76 +5,116 @@ import com.ecommerce.dto.LoginRequest;
 import com.ecommerce.dto.RegisterRequest;
 import com.ecommerce.entity.User;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.AuthenticatedUser;
+import com.ecommerce.service.PasswordHashingService;
+import com.ecommerce.service.PasswordHashingService.HashingSaturatedException;
 import com.ecommerce.util.JwtUtil;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/auth")
 @CrossOrigin(origins = "*")
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private UserDetailsService userDetailsService;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
+    private final UserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        // The users row is read here, on the request thread; only the BCrypt comparison runs on the hashing pool
+        AuthenticatedUser user = findUser(loginRequest.getEmail());
         try {
-            authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-            );
-
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-            String jwt = jwtUtil.generateToken(userDetails);
-
-            User user = userRepository.findByEmail(loginRequest.getEmail()).get();
-
-            return ResponseEntity.ok(new JwtResponse(jwt, 
-                    user.getEmail(), 
-                    user.getFirstName(), 
-                    user.getLastName(), 
-                    user.getRole().name()));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(new ApiResponse("Error: Invalid credentials!"));
+            CompletableFuture<Boolean> matches = user == null
+                    ? passwordHashingService.matchesUnknownUser(loginRequest.getPassword())
+                    : passwordHashingService.matches(loginRequest.getPassword(), user.getPassword());
+            return matches.thenApply(valid -> {
+                if (!valid) {
+                    return invalidCredentials();
+                }
+                try {
+                    accountStatusChecker.check(user);
+                } catch (AuthenticationException e) {
+                    return invalidCredentials();
+                }
+                String jwt = jwtUtil.generateToken(user);
+
+                return ResponseEntity.ok(new JwtResponse(jwt, 
+                        user.getUsername(), 
+                        user.getFirstName(), 
+                        user.getLastName(), 
+                        user.getRole().name()));
+            });
+        } catch (HashingSaturatedException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
         }
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity.badRequest().body(new ApiResponse("Error: Email is already taken!"));
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new ApiResponse("Error: Email is already taken!")));
+        }
+
+        try {
+            return passwordHashingService.encode(signUpRequest.getPassword()).thenApply(encodedPassword -> {
+                // Create new user's account
+                User user = new User();
+                user.setEmail(signUpRequest.getEmail());
+                user.setFirstName(signUpRequest.getFirstName());
+                user.setLastName(signUpRequest.getLastName());
+                user.setPassword(encodedPassword);
+                user.setRole(User.Role.ROLE_USER);
+
+                userRepository.save(user);
+
+                return ResponseEntity.ok(new ApiResponse("User registered successfully!"));
+            });
+        } catch (HashingSaturatedException e) {
+            return CompletableFuture.completedFuture(tooManyRequests());
         }
+    }
 
-        // Create new user's account
-        User user = new User();
-        user.setEmail(signUpRequest.getEmail());
-        user.setFirstName(signUpRequest.getFirstName());
-        user.setLastName(signUpRequest.getLastName());
-        user.setPassword(passwordEncoder.encode(signUpRequest.getPassword()));
-        user.setRole(User.Role.ROLE_USER);
+    // The principal is built from the one users row read for the login
+    private AuthenticatedUser findUser(String email) {
+        try {
+            return (AuthenticatedUser) userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 
-        userRepository.save(user);
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.badRequest().body(new ApiResponse("Error: Invalid credentials!"));
+    }
 
-        return ResponseEntity.ok(new ApiResponse("User registered successfully!"));
+    private static ResponseEntity<?> tooManyRequests() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiResponse("Error: Too many requests, please try again shortly"));
     }
 
     // Inner class for API responses
@@ -0,0 +1,80 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.CartReservationDto;
+import com.ecommerce.service.CartReservationService;
+import com.ecommerce.service.CartReservationService.HoldLimitExceededException;
+import com.ecommerce.service.InventoryService.StockResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cart")
+@CrossOrigin(origins = "*")
+public class CartController {
+
+    private static final int MAX_CART_ID_LENGTH = 64;
+
+    @Autowired
+    private CartReservationService cartReservationService;
+
+    @GetMapping("/{cartId}/reservations")
+    public ResponseEntity<?> getReservations(@PathVariable String cartId) {
+        if (cartId.length() > MAX_CART_ID_LENGTH) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Invalid cart id\"}");
+        }
+        List<CartReservationDto> reservations = cartReservationService.findByCart(cartId);
+        return ResponseEntity.ok(reservations);
+    }
+
+    @PutMapping("/{cartId}/reservations/{productId}")
+    public ResponseEntity<?> holdProduct(@PathVariable String cartId, @PathVariable Long productId,
+                                         @RequestParam int quantity, HttpServletRequest request) {
+        if (cartId.length() > MAX_CART_ID_LENGTH) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Invalid cart id\"}");
+        }
+        if (quantity < 0) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Quantity must not be negative\"}");
+        }
+
+        StockResult result;
+        try {
+            result = cartReservationService.hold(cartId, clientKey(request), productId, quantity);
+        } catch (HoldLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("{\"error\": \"Too many units reserved; check out or release some first\"}");
+        }
+        switch (result) {
+            case UPDATED:
+                return ResponseEntity.ok(cartReservationService.findByCart(cartId));
+            case INSUFFICIENT:
+                return ResponseEntity.badRequest().body("{\"error\": \"Insufficient stock\"}");
+            default:
+                return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{cartId}/reservations/{productId}")
+    public ResponseEntity<?> releaseProduct(@PathVariable String cartId, @PathVariable Long productId,
+                                            HttpServletRequest request) {
+        cartReservationService.hold(cartId, clientKey(request), productId, 0);
+        return ResponseEntity.ok().body("{\"message\": \"Reservation released\"}");
+    }
+
+    @DeleteMapping("/{cartId}/reservations")
+    public ResponseEntity<?> releaseCart(@PathVariable String cartId) {
+        cartReservationService.releaseAll(cartId);
+        return ResponseEntity.ok().body("{\"message\": \"Cart reservations released\"}");
+    }
+
+    // Signed-in users are capped by account, guests by address
+    private static String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : request.getRemoteAddr();
+    }
+}
@@ -1,31 +1,48 @@
 package com.ecommerce.controller;
 
-import com.ecommerce.entity.Category;
-import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.service.CategoryCacheService;
+import com.ecommerce.service.CategoryCacheService.Snapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
 
+import static com.ecommerce.util.ConditionalResponses.respond;
+
 @RestController
 @RequestMapping("/categories")
 @CrossOrigin(origins = "http://localhost:4200")
 public class CategoryController {
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CategoryCacheService categoryCacheService;
+
+    @Value("${category.cache.max-age-seconds:60}")
+    private long maxAgeSeconds;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<CategoryDto>> getAllCategories(WebRequest request) {
+        Snapshot snapshot = categoryCacheService.getSnapshot();
+        return respond(request, snapshot.getEtag(), snapshot.getLoadedAt(), cacheControl(), snapshot::getCategories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return categoryRepository.findById(id)
-                .map(category -> ResponseEntity.ok().body(category))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CategoryDto> getCategoryById(@PathVariable Long id, WebRequest request) {
+        Snapshot snapshot = categoryCacheService.getSnapshot();
+        CategoryDto category = snapshot.get(id);
+        if (category == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return respond(request, Snapshot.etagOf(category), snapshot.getLoadedAt(), cacheControl(), () -> category);
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic();
     }
 }
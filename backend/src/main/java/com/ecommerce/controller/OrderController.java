@@ -0,0 +1,104 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.OrderRequest;
+import com.ecommerce.dto.OrderStatusRequest;
+import com.ecommerce.dto.OrderSummaryDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Order.OrderStatus;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.OrderStatsService;
+import com.ecommerce.service.OrderService.OrderRejectedException;
+import jakarta.validation.Valid;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/orders")
+@CrossOrigin(origins = "*")
+public class OrderController {
+
+    // Tracking numbers are unique per node, but a misconfigured node id can still clash; the order is retried with a fresh one
+    private static final int PLACE_ORDER_ATTEMPTS = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Page<OrderDto>> getOrderHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+        
+        return ResponseEntity.ok(orderService.findHistory(authentication.getName(), page, size));
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderSummaryDto> getOrderSummary(Authentication authentication) {
+        return ResponseEntity.ok(orderStatsService.findSummary(authentication.getName()));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> placeOrder(@Valid @RequestBody OrderRequest orderRequest, Authentication authentication) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                OrderDto order = orderService.placeOrder(authentication.getName(), orderRequest);
+                return ResponseEntity.ok(order);
+            } catch (OrderRejectedException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } catch (DataIntegrityViolationException e) {
+                // The whole order rolled back, so placing it again is safe; any other
+                // violation would only fail the same way again
+                if (!isTrackingNumberClash(e) || attempt == PLACE_ORDER_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean isTrackingNumberClash(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase().endsWith(Order.TRACKING_NUMBER_KEY);
+            }
+        }
+        return false;
+    }
+
+    @PostMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> cancelOrder(@PathVariable Long id, Authentication authentication) {
+        return changeStatus(id, OrderStatus.CANCELLED, authentication.getName());
+    }
+
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @Valid @RequestBody OrderStatusRequest request) {
+        return changeStatus(id, request.getStatus(), null);
+    }
+
+    private ResponseEntity<?> changeStatus(Long id, OrderStatus status, String email) {
+        try {
+            Optional<OrderDto> order = orderService.changeStatus(id, status, email);
+            return order.isPresent() ? ResponseEntity.ok(order.get()) : ResponseEntity.notFound().build();
+        } catch (OrderRejectedException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CatalogVersion;
+import com.ecommerce.dto.CursorPage;
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.StockAdjustmentRequest;
 import com.ecommerce.entity.Product;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.CatalogExportService;
+import com.ecommerce.service.CatalogFormat;
+import com.ecommerce.service.CatalogImportService;
+import com.ecommerce.service.CategoryCacheService;
+import com.ecommerce.service.InventoryService;
+import com.ecommerce.service.ProductCacheService;
+import com.ecommerce.service.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static com.ecommerce.util.ConditionalResponses.respond;
+import static com.ecommerce.util.ConditionalResponses.toEpochMillis;
 
 @RestController
 @RequestMapping("/products")
@@ -22,60 +49,170 @@ public class ProductController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private CategoryCacheService categoryCacheService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    // Stock moves constantly, so clients may store responses but must revalidate each use
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    // Larger page sizes are served as this many rows
+    private static final int MAX_PAGE_SIZE = 100;
+
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Page<ProductDto>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            WebRequest request) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Product> products = productRepository.findAll(pageable);
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), sort);
+        CatalogVersion version = new CatalogVersion(productRepository.findCatalogStructureVersion(),
+                productRepository.findLastUpdated());
         
-        return ResponseEntity.ok(products);
+        return respond(request, listingEtag(version), -1, REVALIDATE,
+                () -> productRepository.findAllAsDto(pageable));
+    }
+
+    // Keyset variant of getAllProducts, selected by the presence of "after" (empty for the first slice)
+    @GetMapping(params = "after")
+    public ResponseEntity<?> getAllProductsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        return sliceAfter(after, size, sortBy, sortDir.equalsIgnoreCase("desc"), false,
+                (cursor, limit) -> productRepository.findSliceAsDto(null, cursor, limit));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        CatalogFormat exportFormat;
+        try {
+            exportFormat = CatalogFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            byte[] error = "{\"error\": \"Format must be ndjson or csv\"}".getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(error));
+        }
+
+        StreamingResponseBody body = out -> catalogExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productRepository.findById(id);
-        return product.map(ResponseEntity::ok)
-                     .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        Optional<Product> product = productCacheService.findById(id);
+        return product.map(p -> {
+                    long lastModified = toEpochMillis(p.getLastUpdated());
+                    return respond(request, "\"" + id + "-" + lastModified + "\"", lastModified, REVALIDATE, () -> p);
+                })
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<Product>> getProductsByCategory(
+    public ResponseEntity<Page<ProductDto>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findActiveByCategoryId(categoryId, pageable);
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+        CatalogVersion version = new CatalogVersion(productRepository.findCatalogStructureVersion(),
+                productRepository.findActiveLastUpdatedByCategoryId(categoryId));
         
-        return ResponseEntity.ok(products);
+        return respond(request, listingEtag(version), -1, REVALIDATE,
+                () -> productRepository.findActiveByCategoryIdAsDto(categoryId, pageable));
+    }
+
+    @GetMapping(value = "/category/{categoryId}", params = "after")
+    public ResponseEntity<?> getProductsByCategoryAfter(
+            @PathVariable Long categoryId,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        return sliceAfter(after, size, sortBy, sortDir.equalsIgnoreCase("desc"), false,
+                (cursor, limit) -> productRepository.findSliceAsDto(categoryId, cursor, limit));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<?> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findByNameContainingIgnoreCase(keyword, pageable);
+        if (!productSearchIndex.isReady()) {
+            return searchUnavailable();
+        }
+        Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+        Page<ProductDto> products = productSearchIndex.search(keyword, pageable);
         
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping(value = "/search", params = "after")
+    public ResponseEntity<?> searchProductsAfter(
+            @RequestParam String keyword,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
+
+        if (!productSearchIndex.isReady()) {
+            return searchUnavailable();
+        }
+        return sliceAfter(after, size, sortBy, sortDir.equalsIgnoreCase("desc"), true,
+                (cursor, limit) -> productSearchIndex.searchAfter(keyword, cursor.getLastId(), limit));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
         Product savedProduct = productRepository.save(product);
+        productRepository.bumpCatalogStructureVersion();
+        productSearchIndex.index(savedProduct);
+        productCacheService.evict(savedProduct.getId());
         return ResponseEntity.ok(savedProduct);
     }
 
+    // Upserts products by sku from a CSV or NDJSON request body, read as a stream
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importProducts(@RequestParam(defaultValue = "csv") String format,
+                                            InputStream body) throws IOException {
+        CatalogFormat importFormat;
+        try {
+            importFormat = CatalogFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Format must be ndjson or csv\"}");
+        }
+        return ResponseEntity.ok(catalogImportService.importProducts(importFormat, body));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
@@ -93,6 +230,10 @@ public class ProductController {
             product.setCategory(productDetails.getCategory());
             
             Product updatedProduct = productRepository.save(product);
+            productRepository.bumpCatalogStructureVersion();
+            productSearchIndex.index(updatedProduct);
+            inventoryService.discardBudget(id);
+            productCacheService.evict(id);
             return ResponseEntity.ok(updatedProduct);
         } else {
             return ResponseEntity.notFound().build();
@@ -104,6 +245,9 @@ public class ProductController {
     public ResponseEntity<?> deleteProduct(@PathVariable Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            productRepository.bumpCatalogStructureVersion();
+            productSearchIndex.remove(id);
+            productCacheService.evict(id);
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.notFound().build();
@@ -112,34 +256,74 @@ public class ProductController {
 
     @PutMapping("/{id}/decrease-stock")
     public ResponseEntity<?> decreaseProductStock(@PathVariable Long id, @RequestParam int quantity) {
-        Optional<Product> productOpt = productRepository.findById(id);
-        
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            
-            if (product.getUnitsInStock() >= quantity) {
-                product.setUnitsInStock(product.getUnitsInStock() - quantity);
-                productRepository.save(product);
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Quantity must be positive\"}");
+        }
+
+        switch (inventoryService.decrease(id, quantity)) {
+            case UPDATED:
                 return ResponseEntity.ok().body("{\"message\": \"Stock decreased successfully\"}");
-            } else {
+            case INSUFFICIENT:
                 return ResponseEntity.badRequest().body("{\"error\": \"Insufficient stock\"}");
-            }
-        } else {
-            return ResponseEntity.notFound().build();
+            default:
+                return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}/increase-stock")
     public ResponseEntity<?> increaseProductStock(@PathVariable Long id, @RequestParam int quantity) {
-        Optional<Product> productOpt = productRepository.findById(id);
-        
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            product.setUnitsInStock(product.getUnitsInStock() + quantity);
-            productRepository.save(product);
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Quantity must be positive\"}");
+        }
+
+        if (inventoryService.increase(id, quantity) == InventoryService.StockResult.UPDATED) {
             return ResponseEntity.ok().body("{\"message\": \"Stock increased successfully\"}");
         } else {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // Warehouse sync: many stock changes in one call, with a result per adjustment
+    @PostMapping("/stock-adjustments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> adjustStock(@Valid @RequestBody StockAdjustmentRequest request) {
+        return ResponseEntity.ok(inventoryService.adjustAll(request.getAdjustments()));
+    }
+
+    // Listings embed category names, so the category snapshot is part of their version
+    private String listingEtag(CatalogVersion version) {
+        String categories = categoryCacheService.getSnapshot().getEtag().replace("\"", "");
+        return "W/\"" + version.getStructureVersion() + "-" + toEpochMillis(version.getLastUpdated()) + "-" + categories + "\"";
+    }
+
+    // The index is built once the application is ready; until then searches would come back empty
+    private static ResponseEntity<?> searchUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body("{\"error\": \"Search index is still being built\"}");
+    }
+
+    // Search hits are only held by id, so its slices can only seek in ascending id order
+    private ResponseEntity<?> sliceAfter(String after, int size, String sortBy, boolean descending, boolean idOrderOnly,
+                                         BiFunction<ProductCursor, Integer, Slice<ProductDto>> loader) {
+        if (size < 1) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Size must be positive\"}");
+        }
+
+        ProductCursor cursor;
+        try {
+            cursor = after.isEmpty() ? ProductCursor.start(sortBy, descending) : ProductCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Invalid cursor\"}");
+        }
+        if (idOrderOnly && (!"id".equals(cursor.getSortBy()) || cursor.isDescending())) {
+            return ResponseEntity.badRequest().body("{\"error\": \"Only ascending id order is supported here\"}");
+        }
+
+        Slice<ProductDto> slice = loader.apply(cursor, Math.min(size, MAX_PAGE_SIZE));
+        List<ProductDto> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? cursor.after(content.get(content.size() - 1)).encode() : null;
+
+        return ResponseEntity.ok(new CursorPage<>(content, content.size(), slice.hasNext(), nextCursor));
+    }
 }
@@ -2,19 +2,28 @@ package com.ecommerce.controller;
 
 import com.ecommerce.entity.User;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.JwtClaims;
+import com.ecommerce.service.PasswordHashingService;
+import com.ecommerce.service.PasswordHashingService.HashingSaturatedException;
+import com.ecommerce.service.TokenVersionService;
+import com.ecommerce.service.UserPrincipalService;
 import com.ecommerce.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -25,17 +34,25 @@ public class UserController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserPrincipalService userPrincipalService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @GetMapping("/profile")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<?> getProfile(HttpServletRequest request) {
         try {
-            String token = extractTokenFromRequest(request);
-            String email = jwtUtil.extractUsername(token);
+            String email = resolveClaims(request).getSubject();
             
             Optional<User> userOpt = userRepository.findByEmail(email);
             if (userOpt.isPresent()) {
@@ -58,86 +75,133 @@ public class UserController {
 
     @PutMapping("/profile")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<?> updateProfile(@RequestBody Map<String, Object> updateData, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> updateProfile(@RequestBody Map<String, Object> updateData, HttpServletRequest request) {
         try {
-            String token = extractTokenFromRequest(request);
-            String email = jwtUtil.extractUsername(token);
+            String email = resolveClaims(request).getSubject();
             
             Optional<User> userOpt = userRepository.findByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                
-                // Update basic information
-                if (updateData.containsKey("firstName")) {
-                    user.setFirstName((String) updateData.get("firstName"));
-                }
-                if (updateData.containsKey("lastName")) {
-                    user.setLastName((String) updateData.get("lastName"));
-                }
-                if (updateData.containsKey("email")) {
-                    String newEmail = (String) updateData.get("email");
-                    // Check if email is already taken by another user
-                    Optional<User> existingUser = userRepository.findByEmail(newEmail);
-                    if (existingUser.isPresent() && !existingUser.get().getId().equals(user.getId())) {
-                        return ResponseEntity.badRequest().body("{\"error\": \"Email already exists\"}");
-                    }
-                    user.setEmail(newEmail);
-                }
-                
-                // Update password if provided
-                if (updateData.containsKey("newPassword") && updateData.containsKey("currentPassword")) {
-                    String currentPassword = (String) updateData.get("currentPassword");
-                    String newPassword = (String) updateData.get("newPassword");
-                    
-                    if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
-                        return ResponseEntity.badRequest().body("{\"error\": \"Current password is incorrect\"}");
-                    }
-                    
-                    user.setPassword(passwordEncoder.encode(newPassword));
-                }
-                
-                User updatedUser = userRepository.save(user);
-                
-                Map<String, Object> response = new HashMap<>();
-                response.put("email", updatedUser.getEmail());
-                response.put("firstName", updatedUser.getFirstName());
-                response.put("lastName", updatedUser.getLastName());
-                response.put("role", updatedUser.getRole().name());
-                response.put("message", "Profile updated successfully");
-                
-                return ResponseEntity.ok(response);
-            } else {
-                return ResponseEntity.notFound().build();
+            if (userOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+            }
+            User user = userOpt.get();
+            
+            if (!updateData.containsKey("newPassword") || !updateData.containsKey("currentPassword")) {
+                return CompletableFuture.completedFuture(applyProfileUpdate(user, email, updateData, null));
             }
+            
+            // Password checks and hashing run on the hashing pool; the update itself follows once they are done
+            String currentPassword = (String) updateData.get("currentPassword");
+            String newPassword = (String) updateData.get("newPassword");
+            return passwordHashingService.matches(currentPassword, user.getPassword())
+                    .thenCompose(matches -> {
+                        if (!matches) {
+                            return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                                    ResponseEntity.badRequest().body("{\"error\": \"Current password is incorrect\"}"));
+                        }
+                        return passwordHashingService.encode(newPassword)
+                                .thenApply(encodedPassword -> applyProfileUpdate(user, email, updateData, encodedPassword));
+                    })
+                    .exceptionally(e -> failure(e, "{\"error\": \"Failed to update profile\"}"));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("{\"error\": \"Failed to update profile\"}");
+            return CompletableFuture.completedFuture(failure(e, "{\"error\": \"Failed to update profile\"}"));
         }
     }
 
     @DeleteMapping("/account")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<?> deleteAccount(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+    public CompletableFuture<ResponseEntity<?>> deleteAccount(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            String email = jwtUtil.extractUsername(token);
+            String email = resolveClaims(httpRequest).getSubject();
             String password = request.get("password");
             
             Optional<User> userOpt = userRepository.findByEmail(email);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                
-                if (!passwordEncoder.matches(password, user.getPassword())) {
-                    return ResponseEntity.badRequest().body("{\"error\": \"Password is incorrect\"}");
-                }
-                
-                userRepository.delete(user);
-                return ResponseEntity.ok().body("{\"message\": \"Account deleted successfully\"}");
-            } else {
-                return ResponseEntity.notFound().build();
+            if (userOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
             }
+            User user = userOpt.get();
+            
+            return passwordHashingService.matches(password, user.getPassword())
+                    .<ResponseEntity<?>>thenApply(matches -> {
+                        if (!matches) {
+                            return ResponseEntity.badRequest().body("{\"error\": \"Password is incorrect\"}");
+                        }
+                        
+                        userRepository.delete(user);
+                        userPrincipalService.evict(email);
+                        tokenVersionService.revokeAll(user.getId());
+                        return ResponseEntity.ok().body("{\"message\": \"Account deleted successfully\"}");
+                    })
+                    .exceptionally(e -> failure(e, "{\"error\": \"Failed to delete account\"}"));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("{\"error\": \"Failed to delete account\"}");
+            return CompletableFuture.completedFuture(failure(e, "{\"error\": \"Failed to delete account\"}"));
+        }
+    }
+
+    private ResponseEntity<?> applyProfileUpdate(User user, String email, Map<String, Object> updateData, String encodedPassword) {
+        boolean revokeTokens = false;
+        
+        // Update basic information
+        if (updateData.containsKey("firstName")) {
+            user.setFirstName((String) updateData.get("firstName"));
+        }
+        if (updateData.containsKey("lastName")) {
+            user.setLastName((String) updateData.get("lastName"));
+        }
+        if (updateData.containsKey("email")) {
+            String newEmail = (String) updateData.get("email");
+            // Check if email is already taken by another user
+            Optional<User> existingUser = userRepository.findByEmail(newEmail);
+            if (existingUser.isPresent() && !existingUser.get().getId().equals(user.getId())) {
+                return ResponseEntity.badRequest().body("{\"error\": \"Email already exists\"}");
+            }
+            revokeTokens = !newEmail.equals(user.getEmail());
+            user.setEmail(newEmail);
+        }
+        
+        // Update password if provided; it has already been verified and hashed
+        if (encodedPassword != null) {
+            user.setPassword(encodedPassword);
+            revokeTokens = true;
+        }
+        
+        // Tokens carrying the old email or issued before a password change stop working, in either principal mode
+        boolean bumpVersion = revokeTokens;
+        User updatedUser = transactionTemplate.execute(status -> {
+            if (bumpVersion) {
+                tokenVersionService.bump(user);
+            }
+            return userRepository.save(user);
+        });
+        userPrincipalService.evict(email);
+        userPrincipalService.evict(updatedUser.getEmail());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("email", updatedUser.getEmail());
+        response.put("firstName", updatedUser.getFirstName());
+        response.put("lastName", updatedUser.getLastName());
+        response.put("role", updatedUser.getRole().name());
+        response.put("message", "Profile updated successfully");
+        
+        return ResponseEntity.ok(response);
+    }
+
+    // A full hashing queue is reported as 429 so clients back off; anything else keeps the endpoint's own error
+    private static ResponseEntity<?> failure(Throwable e, String errorBody) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof HashingSaturatedException) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("{\"error\": \"Too many requests, please try again shortly\"}");
+        }
+        return ResponseEntity.badRequest().body(errorBody);
+    }
+
+    private JwtClaims resolveClaims(HttpServletRequest request) {
+        Object claims = request.getAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+        if (claims instanceof JwtClaims) {
+            return (JwtClaims) claims;
         }
+        return jwtUtil.verify(extractTokenFromRequest(request));
     }
 
     private String extractTokenFromRequest(HttpServletRequest request) {
@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartReservationDto {
+    private Long productId;
+    private int quantity;
+    private LocalDateTime expiresAt;
+}
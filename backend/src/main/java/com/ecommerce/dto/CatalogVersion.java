@@ -0,0 +1,23 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a product listing: the catalog structure version, bumped by
+ * every write that can add or remove a listed product, and the newest
+ * lastUpdated of the listed rows, moved by every change to one of them.
+ * Both are single index reads, so they validate every page of the listing
+ * without loading it. A delete leaves lastUpdated where it was, which is
+ * why listings carry no Last-Modified header.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    private long structureVersion;
+    private LocalDateTime lastUpdated;
+}
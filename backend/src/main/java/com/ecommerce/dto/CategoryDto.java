@@ -0,0 +1,10 @@
+package com.ecommerce.dto;
+
+import lombok.Value;
+
+@Value
+public class CategoryDto {
+    Long id;
+    String name;
+    String description;
+}
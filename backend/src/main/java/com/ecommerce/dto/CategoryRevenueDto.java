@@ -0,0 +1,17 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRevenueDto {
+    private Long categoryId;
+    private String categoryName;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyOrdersDto {
+    private LocalDateTime hour;
+    private long orderCount;
+    private long itemQuantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDto {
+    private Long id;
+    private String orderTrackingNumber;
+    private BigDecimal totalPrice;
+    private int totalQuantity;
+    private String status;
+    private LocalDateTime dateCreated;
+    private List<OrderItemDto> items;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDto {
+    private Long productId;
+    private String productName;
+    private String imageUrl;
+    private int quantity;
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemRequest {
+    
+    @NotNull(message = "Product is required")
+    private Long productId;
+    
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private int quantity;
+    
+    // The price the client displayed; rejected if it no longer matches the catalog
+    @NotNull(message = "Unit price is required")
+    private BigDecimal unitPrice;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRequest {
+    
+    // Cart whose stock reservations are turned into the order's items
+    private String cartId;
+    
+    @NotEmpty(message = "Order must contain at least one item")
+    @Valid
+    private List<OrderItemRequest> items;
+    
+    @NotBlank(message = "Shipping address is required")
+    private String shippingAddress;
+    
+    @NotBlank(message = "Shipping city is required")
+    private String shippingCity;
+    
+    private String shippingState;
+    private String shippingCountry;
+    private String shippingZipCode;
+    
+    private String billingAddress;
+    private String billingCity;
+    private String billingState;
+    private String billingCountry;
+    private String billingZipCode;
+}
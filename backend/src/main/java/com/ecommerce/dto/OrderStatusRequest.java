@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.Order.OrderStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusRequest {
+    
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
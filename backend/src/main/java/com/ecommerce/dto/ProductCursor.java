@@ -0,0 +1,103 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Opaque keyset position for product listings: the sort key and direction
+ * plus the sort value and id of the last row the client has seen. Encoded
+ * as URL-safe Base64 so clients pass it back verbatim in {@code after}.
+ */
+public final class ProductCursor {
+
+    public static final Set<String> SORT_KEYS = Set.of("id", "sku", "name", "unitPrice", "unitsInStock");
+
+    private final String sortBy;
+    private final boolean descending;
+    private final Long lastId;
+    private final Comparable<?> lastValue;
+
+    private ProductCursor(String sortBy, boolean descending, Long lastId, Comparable<?> lastValue) {
+        if (!SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort key for cursor pagination: " + sortBy);
+        }
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static ProductCursor start(String sortBy, boolean descending) {
+        return new ProductCursor(sortBy, descending, null, null);
+    }
+
+    public ProductCursor after(ProductDto last) {
+        return new ProductCursor(sortBy, descending, last.getId(), valueOf(last));
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public boolean hasPosition() {
+        return lastId != null;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public Comparable<?> getLastValue() {
+        return lastValue;
+    }
+
+    public String encode() {
+        String raw = sortBy + ":" + (descending ? "d" : "a") + ":" + lastId + ":"
+                + (lastValue == null ? "" : lastValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            String sortBy = parts[0];
+            Long lastId = Long.valueOf(parts[2]);
+            return new ProductCursor(sortBy, "d".equals(parts[1]), lastId, parseValue(sortBy, parts[3], lastId));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private Comparable<?> valueOf(ProductDto product) {
+        switch (sortBy) {
+            case "sku": return product.getSku();
+            case "name": return product.getName();
+            case "unitPrice": return product.getUnitPrice();
+            case "unitsInStock": return product.getUnitsInStock();
+            default: return product.getId();
+        }
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String value, Long lastId) {
+        switch (sortBy) {
+            case "sku":
+            case "name": return value;
+            case "unitPrice": return new BigDecimal(value);
+            case "unitsInStock": return Integer.valueOf(value);
+            default: return lastId;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One product of a bulk import; unknown fields such as the id of an export are ignored
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductImportRow {
+
+    @NotBlank
+    @Size(max = 50)
+    private String sku;
+
+    @NotBlank
+    @Size(max = 200)
+    private String name;
+
+    @Size(max = 1000)
+    private String description;
+
+    @NotNull
+    @DecimalMin("0.00")
+    @Digits(integer = 8, fraction = 2)
+    private BigDecimal unitPrice;
+
+    @Size(max = 500)
+    private String imageUrl;
+
+    private Boolean active;
+
+    @Min(0)
+    private Integer unitsInStock;
+
+    private Long categoryId;
+
+    private String categoryName;
+}
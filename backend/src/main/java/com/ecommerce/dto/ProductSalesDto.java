@@ -0,0 +1,19 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDto {
+    private Long productId;
+    private String sku;
+    private String name;
+    private long unitsSold;
+    private long orderCount;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustment {
+    
+    // Either the product id or its sku identifies the product
+    private Long productId;
+    
+    private String sku;
+    
+    // Units to add, or to remove when negative; stock never drops below zero
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+    
+    @AssertTrue(message = "Exactly one of productId and sku is required")
+    private boolean isIdentified() {
+        return (productId == null) != (sku == null || sku.isBlank());
+    }
+}
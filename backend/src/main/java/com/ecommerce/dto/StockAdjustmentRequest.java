@@ -0,0 +1,21 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentRequest {
+    
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 10000, message = "At most 10000 adjustments per request")
+    @Valid
+    private List<StockAdjustment> adjustments;
+}
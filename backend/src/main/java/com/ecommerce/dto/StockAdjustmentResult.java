@@ -0,0 +1,16 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.service.InventoryService.StockResult;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResult {
+    private Long productId;
+    private String sku;
+    private int delta;
+    private StockResult status;
+}
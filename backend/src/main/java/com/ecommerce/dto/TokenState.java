@@ -0,0 +1,13 @@
+package com.ecommerce.dto;
+
+import lombok.Value;
+
+/**
+ * The columns of a users row that decide whether its tokens are still
+ * accepted.
+ */
+@Value
+public class TokenState {
+    int tokenVersion;
+    boolean enabled;
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cart_reservations",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}),
+       indexes = {
+           @Index(name = "idx_cart_reservations_expires_at", columnList = "expires_at"),
+           @Index(name = "idx_cart_reservations_client_key", columnList = "client_key")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartReservation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 64)
+    private String cartId;
+    
+    // Signed-in email or client address of whoever placed the hold, for the per-client cap
+    @Column(length = 100)
+    private String clientKey;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+    
+    @Column(nullable = false)
+    private int quantity;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime dateCreated;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+    
+    @PrePersist
+    protected void onCreate() {
+        dateCreated = LocalDateTime.now();
+        lastUpdated = LocalDateTime.now();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        lastUpdated = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.service.CategoryCacheService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the category snapshot whenever a category row is written through JPA.
+ */
+@Component
+public class CategoryChangeListener {
+
+    @Autowired
+    private CategoryCacheService categoryCacheService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Category category) {
+        categoryCacheService.invalidate();
+    }
+}
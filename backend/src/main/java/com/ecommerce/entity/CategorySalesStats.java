@@ -0,0 +1,33 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running sales totals of the products in one category, attributed to the
+ * category a product was in when the order was placed.
+ */
+@Entity
+@Table(name = "category_sales_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySalesStats {
+    
+    @Id
+    private Long categoryId;
+    
+    @Column(nullable = false)
+    private long unitsSold;
+    
+    // Minor units (cents)
+    @Column(nullable = false)
+    private long revenueMinor;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+}
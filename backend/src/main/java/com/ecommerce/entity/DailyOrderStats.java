@@ -0,0 +1,52 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of the orders placed on one day, excluding cancelled ones.
+ * Each day is split over a few shard rows, picked by user id, so concurrent
+ * checkouts do not all queue on one row lock; a day's totals are the sum of
+ * its shards.
+ */
+@Entity
+@Table(name = "daily_order_stats")
+@IdClass(DailyOrderStats.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderStats {
+    
+    @Id
+    private LocalDate statDate;
+    
+    @Id
+    private int shard;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false)
+    private long itemQuantity;
+    
+    // Minor units (cents)
+    @Column(nullable = false)
+    private long revenueMinor;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate statDate;
+        private int shard;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of the orders placed within one hour, keyed by the start
+ * of the hour, excluding cancelled ones.
+ */
+@Entity
+@Table(name = "hourly_order_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyOrderStats {
+    
+    @Id
+    private LocalDateTime statHour;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false)
+    private long itemQuantity;
+    
+    // Minor units (cents)
+    @Column(nullable = false)
+    private long revenueMinor;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+}
@@ -1,26 +1,36 @@
 package com.ecommerce.entity;
 
+import com.ecommerce.util.Money;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+       indexes = @Index(name = "idx_orders_user_date_created", columnList = "user_id, date_created"),
+       uniqueConstraints = @UniqueConstraint(name = Order.TRACKING_NUMBER_KEY, columnNames = "order_tracking_number"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
+
+    public static final String TRACKING_NUMBER_KEY = "uk_orders_tracking_number";
     
+    // Pooled sequence ids let Hibernate batch order inserts, which IDENTITY rules out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
-    @Column(unique = true, nullable = false, length = 100)
+    @Column(nullable = false, length = 100)
     private String orderTrackingNumber;
     
     @Column(nullable = false, precision = 10, scale = 2)
@@ -41,10 +51,14 @@ public class Order {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private User user;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private Set<OrderItem> orderItems;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<OrderItem> orderItems = new ArrayList<>();
     
     // Shipping Address
     @Column(length = 200)
@@ -82,9 +96,16 @@ public class Order {
     protected void onCreate() {
         dateCreated = LocalDateTime.now();
         lastUpdated = LocalDateTime.now();
-        if (orderTrackingNumber == null) {
-            orderTrackingNumber = generateTrackingNumber();
+        
+        // Totals are derived from the items once, when the order is written, and never recomputed on read
+        long totalMinor = 0;
+        int quantity = 0;
+        for (OrderItem item : orderItems) {
+            totalMinor += item.getTotalPriceMinor();
+            quantity += item.getQuantity();
         }
+        totalPrice = Money.fromMinor(totalMinor);
+        totalQuantity = quantity;
     }
     
     @PreUpdate
@@ -92,11 +113,17 @@ public class Order {
         lastUpdated = LocalDateTime.now();
     }
     
-    private String generateTrackingNumber() {
-        return "ORD-" + System.currentTimeMillis();
-    }
-    
     public enum OrderStatus {
-        PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED;
+        
+        // Orders can be cancelled until they ship; DELIVERED and CANCELLED are final
+        public boolean canMoveTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == CONFIRMED || next == CANCELLED;
+                case CONFIRMED -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
     }
 }
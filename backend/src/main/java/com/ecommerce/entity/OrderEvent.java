@@ -0,0 +1,49 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.entity.Order.OrderStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for an order status transition, written in the transaction
+ * that changes the order and deleted once OrderEventDispatcher has handed
+ * it to every consumer. {@code fromStatus} is null for a newly placed order.
+ */
+@Entity
+@Table(name = "order_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long orderId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus fromStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus toStatus;
+    
+    // Failed deliveries; events at the limit are left in place for inspection
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(nullable = false)
+    private LocalDateTime dateCreated;
+    
+    @PrePersist
+    protected void onCreate() {
+        dateCreated = LocalDateTime.now();
+    }
+}
@@ -9,7 +9,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products",
+       indexes = {
+           @Index(name = "idx_products_category_active", columnList = "category_id, active"),
+           @Index(name = "idx_products_active_stock", columnList = "active, units_in_stock"),
+           @Index(name = "idx_products_last_updated", columnList = "last_updated"),
+           @Index(name = "idx_products_category_active_updated", columnList = "category_id, active, last_updated")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,40 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running sales totals of one product over all orders that are not
+ * cancelled, maintained by SalesAnalyticsService.
+ */
+@Entity
+@Table(name = "product_sales_stats",
+       indexes = {
+           @Index(name = "idx_product_sales_stats_revenue", columnList = "revenue_minor"),
+           @Index(name = "idx_product_sales_stats_units", columnList = "units_sold")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesStats {
+    
+    @Id
+    private Long productId;
+    
+    @Column(nullable = false)
+    private long unitsSold;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    // Minor units (cents)
+    @Column(nullable = false)
+    private long revenueMinor;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+}
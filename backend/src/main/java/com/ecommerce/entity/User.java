@@ -40,6 +40,9 @@ public class User {
     @Column(nullable = false)
     private boolean enabled = true;
     
+    @Column(nullable = false)
+    private int tokenVersion = 0;
+    
     @Column(nullable = false)
     private LocalDateTime dateCreated;
     
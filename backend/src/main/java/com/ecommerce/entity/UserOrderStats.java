@@ -0,0 +1,36 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a user's orders, excluding cancelled ones. Rows are
+ * only ever changed by relative upserts in OrderStatsService.
+ */
+@Entity
+@Table(name = "user_order_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStats {
+    
+    @Id
+    private Long userId;
+    
+    @Column(nullable = false)
+    private long orderCount;
+    
+    @Column(nullable = false)
+    private long itemQuantity;
+    
+    // Minor units (cents)
+    @Column(nullable = false)
+    private long revenueMinor;
+    
+    @Column(nullable = false)
+    private LocalDateTime lastUpdated;
+}
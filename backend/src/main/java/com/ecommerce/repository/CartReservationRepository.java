@@ -0,0 +1,30 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.CartReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CartReservationRepository extends JpaRepository<CartReservation, Long> {
+    
+    List<CartReservation> findByCartIdOrderByIdAsc(String cartId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<CartReservation> findLockedByCartIdAndProductId(String cartId, Long productId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CartReservation> findLockedByCartId(String cartId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CartReservation> findLockedByClientKey(String clientKey);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CartReservation> findLockedByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now, Pageable pageable);
+}
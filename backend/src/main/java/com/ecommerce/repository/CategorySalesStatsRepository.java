@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.CategorySalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategorySalesStatsRepository extends JpaRepository<CategorySalesStats, Long> {
+    
+    List<CategorySalesStats> findAllByOrderByRevenueMinorDesc();
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.HourlyOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface HourlyOrderStatsRepository extends JpaRepository<HourlyOrderStats, LocalDateTime> {
+    
+    List<HourlyOrderStats> findByStatHourGreaterThanEqualOrderByStatHourAsc(LocalDateTime from);
+}
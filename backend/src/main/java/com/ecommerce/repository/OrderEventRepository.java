@@ -0,0 +1,39 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OrderEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_LOCK_TIMEOUT;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+    
+    // A lock timeout of -2 is SKIP LOCKED, so several nodes can drain the outbox without waiting on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT e FROM OrderEvent e WHERE e.attempts < :maxAttempts ORDER BY e.id")
+    List<OrderEvent> findLockedForDispatch(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    Optional<OrderEvent> findLockedById(Long id);
+    
+    @Query("SELECT e.id FROM OrderEvent e WHERE e.attempts < :maxAttempts ORDER BY e.id")
+    List<Long> findIdsForDispatch(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE OrderEvent e SET e.attempts = e.attempts + 1 WHERE e.id = :id")
+    int incrementAttempts(@Param("id") Long id);
+}
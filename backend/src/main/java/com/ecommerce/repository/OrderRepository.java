@@ -1,12 +1,18 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -16,4 +22,19 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdOrderByDateCreatedDesc(Long userId);
     
     List<Order> findByOrderTrackingNumber(String orderTrackingNumber);
+    
+    // Order history is read in two steps: page the ids here, then fetch the whole graph for those ids
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.email = :email",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.email = :email")
+    Page<Long> findIdsByUserEmail(@Param("email") String email, Pageable pageable);
+    
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product p " +
+           "LEFT JOIN FETCH p.category WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findLockedById(Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findLockedByIdAndUserEmail(Long id, String email);
 }
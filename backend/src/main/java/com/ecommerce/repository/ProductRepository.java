@@ -1,17 +1,28 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ProductDto;
 import com.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
     
@@ -24,4 +35,76 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.active = true")
     Page<Product> findActiveByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    // Read-only listings projected straight into ProductDto with a single join. Every product has a category, so
+    // the outer join returns the same rows; it keeps products as the driving table, so the ORDER BY and the offset
+    // walk the products index instead of sorting the whole joined catalogue
+    @Query(value = "SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+                   "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p LEFT JOIN p.category c",
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductDto> findAllAsDto(Pageable pageable);
+    
+    @Query(value = "SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+                   "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p JOIN p.category c " +
+                   "WHERE c.id = :categoryId AND p.active = true",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.active = true")
+    Page<ProductDto> findActiveByCategoryIdAsDto(@Param("categoryId") Long categoryId, Pageable pageable);
+    
+    @Query("SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+           "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p JOIN p.category c WHERE p.id IN :ids")
+    List<ProductDto> findAllAsDtoByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+           "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p JOIN p.category c WHERE p.sku IN :skus")
+    List<ProductDto> findAllAsDtoBySkuIn(@Param("skus") Collection<String> skus);
+    
+    // Search index refresh: products written since a point in time, in id order past the last one read
+    @Query("SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+           "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p JOIN p.category c " +
+           "WHERE p.lastUpdated > :since AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findUpdatedSinceAsDto(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    // Every product of a category, active or not, in id order past the last one read
+    @Query("SELECT new com.ecommerce.dto.ProductDto(p.id, p.sku, p.name, p.description, p.unitPrice, " +
+           "p.imageUrl, p.active, p.unitsInStock, c.name, c.id) FROM Product p JOIN p.category c " +
+           "WHERE c.id = :categoryId AND p.id > :afterId ORDER BY p.id")
+    List<ProductDto> findByCategoryIdAsDto(@Param("categoryId") Long categoryId, @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    // Listing validators: both maxima are read from the end of an index
+    @Query("SELECT MAX(p.lastUpdated) FROM Product p")
+    LocalDateTime findLastUpdated();
+    
+    @Query("SELECT MAX(p.lastUpdated) FROM Product p WHERE p.category.id = :categoryId AND p.active = true")
+    LocalDateTime findActiveLastUpdatedByCategoryId(@Param("categoryId") Long categoryId);
+    
+    @Query(value = "SELECT version FROM catalog_version WHERE id = 1", nativeQuery = true)
+    long findCatalogStructureVersion();
+    
+    // Called after any write that can change which products a listing holds
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE catalog_version SET version = version + 1 WHERE id = 1", nativeQuery = true)
+    void bumpCatalogStructureVersion();
+    
+    // Forward-only read of the whole catalog; the fetch size makes the driver stream rows instead of buffering them
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAll();
+    
+    // Conditional stock updates: the WHERE clause makes check-and-decrement a single atomic statement
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.unitsInStock = p.unitsInStock - :quantity, p.lastUpdated = :now " +
+           "WHERE p.id = :id AND p.unitsInStock >= :quantity")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.unitsInStock = p.unitsInStock + :quantity, p.lastUpdated = :now WHERE p.id = :id")
+    int increaseStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,17 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductDto;
+import org.springframework.data.domain.Slice;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset listing: seeks past the cursor position on (sortKey, id) and
+     * returns one slice without issuing a count query. A null category
+     * leaves that filter out; filtering by category also restricts the
+     * listing to active products. Keyword search goes through
+     * ProductSearchIndex instead.
+     */
+    Slice<ProductDto> findSliceAsDto(Long categoryId, ProductCursor cursor, int size);
+}
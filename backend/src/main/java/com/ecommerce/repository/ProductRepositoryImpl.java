@@ -0,0 +1,71 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Slice<ProductDto> findSliceAsDto(Long categoryId, ProductCursor cursor, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> p = query.from(Product.class);
+        Join<Product, Category> c = p.join("category");
+
+        query.select(cb.construct(ProductDto.class,
+                p.get("id"), p.get("sku"), p.get("name"), p.get("description"), p.get("unitPrice"),
+                p.get("imageUrl"), p.get("active"), p.get("unitsInStock"), c.get("name"), c.get("id")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (categoryId != null) {
+            predicates.add(cb.equal(c.get("id"), categoryId));
+            predicates.add(cb.isTrue(p.get("active")));
+        }
+
+        Path<Long> id = p.get("id");
+        Path<Comparable> key = p.get(cursor.getSortBy());
+        boolean sortById = "id".equals(cursor.getSortBy());
+        if (cursor.hasPosition()) {
+            Long lastId = cursor.getLastId();
+            Comparable lastValue = cursor.getLastValue();
+            Predicate pastId = cursor.isDescending() ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+            if (sortById) {
+                predicates.add(pastId);
+            } else {
+                Predicate pastKey = cursor.isDescending() ? cb.lessThan(key, lastValue) : cb.greaterThan(key, lastValue);
+                predicates.add(cb.or(pastKey, cb.and(cb.equal(key, lastValue), pastId)));
+            }
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        List<Order> orders = new ArrayList<>();
+        if (!sortById) {
+            orders.add(cursor.isDescending() ? cb.desc(key) : cb.asc(key));
+        }
+        orders.add(cursor.isDescending() ? cb.desc(id) : cb.asc(id));
+        query.orderBy(orders);
+
+        // Fetch one extra row to learn whether another slice follows
+        List<ProductDto> rows = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        List<ProductDto> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+}
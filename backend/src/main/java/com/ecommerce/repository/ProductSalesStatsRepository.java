@@ -0,0 +1,15 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ProductSalesStats;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesStatsRepository extends JpaRepository<ProductSalesStats, Long> {
+    
+    // Served from the revenue or units index; no count query
+    List<ProductSalesStats> findBy(Pageable pageable);
+}
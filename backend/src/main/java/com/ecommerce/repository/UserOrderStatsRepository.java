@@ -0,0 +1,16 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.UserOrderStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+    
+    @Query("SELECT s FROM UserOrderStats s WHERE s.userId = (SELECT u.id FROM User u WHERE u.email = :email)")
+    Optional<UserOrderStats> findByUserEmail(@Param("email") String email);
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.security;
+
+import com.ecommerce.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collections;
+
+/**
+ * Principal built from a single users row. Besides what Spring Security
+ * needs it carries the profile fields and token version, so a successful
+ * login can issue its token and response without loading the user again.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final Long id;
+    private final String firstName;
+    private final String lastName;
+    private final User.Role role;
+    private final int tokenVersion;
+
+    public AuthenticatedUser(User user) {
+        super(user.getEmail(), user.getPassword(), user.isEnabled(), true, true, true,
+                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name())));
+        this.id = user.getId();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.role = user.getRole();
+        this.tokenVersion = user.getTokenVersion();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public User.Role getRole() {
+        return role;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+}
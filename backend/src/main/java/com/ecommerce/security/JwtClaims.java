@@ -0,0 +1,68 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of the claims of a token whose signature has already been
+ * verified. The filter stores it on the request so controllers can read the
+ * caller's identity without parsing the token again.
+ */
+public final class JwtClaims {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Map<String, Object> claims;
+
+    public JwtClaims(Claims claims) {
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+        this.claims = Collections.unmodifiableMap(new HashMap<>(claims));
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt == null ? null : new Date(issuedAt.getTime());
+    }
+
+    public Date getExpiration() {
+        return new Date(expiration.getTime());
+    }
+
+    public long getExpirationMillis() {
+        return expiration.getTime();
+    }
+
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    public Long getLong(String name) {
+        Object value = claims.get(name);
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    public String getString(String name) {
+        Object value = claims.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public Object get(String name) {
+        return claims.get(name);
+    }
+
+    public Map<String, Object> asMap() {
+        return claims;
+    }
+}
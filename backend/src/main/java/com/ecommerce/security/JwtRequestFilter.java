@@ -1,15 +1,18 @@
 package com.ecommerce.security;
 
+import com.ecommerce.service.TokenVersionService;
+import com.ecommerce.service.UserPrincipalService;
 import com.ecommerce.util.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,24 +23,30 @@ import java.io.IOException;
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private UserPrincipalService userPrincipalService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain chain) throws ServletException, IOException {
 
         final String requestTokenHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
+        JwtClaims claims = null;
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                claims = jwtUtil.verify(jwtToken);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
             } catch (Exception e) {
                 logger.warn("JWT Token has expired or is invalid");
             }
@@ -45,10 +54,17 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             logger.warn("JWT Token does not begin with Bearer String");
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = null;
+            if (isRevoked(claims)) {
+                logger.warn("JWT Token has been revoked");
+            } else if (statelessPrincipal && hasIdentityClaims(claims)) {
+                userDetails = principalFromClaims(claims);
+            } else {
+                userDetails = this.userPrincipalService.loadPrincipal(claims.getSubject());
+            }
 
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
+            if (userDetails != null && jwtUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
@@ -58,4 +74,31 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    private boolean hasIdentityClaims(JwtClaims claims) {
+        return claims.getLong(JwtUtil.CLAIM_USER_ID) != null
+                && claims.getString(JwtUtil.CLAIM_ROLE) != null
+                && claims.getLong(JwtUtil.CLAIM_TOKEN_VERSION) != null;
+    }
+
+    /**
+     * Checks the token version in both principal modes, so a password change
+     * or account deletion revokes earlier tokens whichever mode is on. Tokens
+     * issued before versions were stamped into them carry no version and are
+     * accepted until they expire.
+     */
+    private boolean isRevoked(JwtClaims claims) {
+        Long userId = claims.getLong(JwtUtil.CLAIM_USER_ID);
+        Long tokenVersion = claims.getLong(JwtUtil.CLAIM_TOKEN_VERSION);
+        return userId != null && tokenVersion != null
+                && !tokenVersionService.isCurrent(userId, tokenVersion.intValue());
+    }
+
+    // Builds the principal straight from the verified claims; revocation has already been checked
+    private UserDetails principalFromClaims(JwtClaims claims) {
+        return User.withUsername(claims.getSubject())
+                .password("")
+                .authorities(claims.getString(JwtUtil.CLAIM_ROLE))
+                .build();
+    }
 }
@@ -0,0 +1,76 @@
+package com.ecommerce.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limits for the login and registration endpoints, per client address
+ * and per email address. Idle buckets are swept periodically.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final TokenBucketLimiter byAddress;
+    private final TokenBucketLimiter byEmail;
+
+    private final Counter rejectedByAddress;
+    private final Counter rejectedByEmail;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${security.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${security.rate-limit.ip.per-minute:20}") int ipPerMinute,
+                            @Value("${security.rate-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${security.rate-limit.email.per-minute:5}") int emailPerMinute) {
+        this.byAddress = new TokenBucketLimiter(ipCapacity, ipPerMinute);
+        this.byEmail = new TokenBucketLimiter(emailCapacity, emailPerMinute);
+
+        this.rejectedByAddress = rejectedCounter(meterRegistry, "ip");
+        this.rejectedByEmail = rejectedCounter(meterRegistry, "email");
+        bucketGauge(meterRegistry, "ip", byAddress);
+        bucketGauge(meterRegistry, "email", byEmail);
+    }
+
+    /**
+     * Takes a token for the address and, when given, the email. Returns 0
+     * when the attempt may proceed, or the nanoseconds until it may be
+     * retried.
+     */
+    public long tryAcquire(String address, String email) {
+        long wait = byAddress.tryAcquire(address);
+        if (wait > 0) {
+            rejectedByAddress.increment();
+            return wait;
+        }
+        if (email != null) {
+            wait = byEmail.tryAcquire(email);
+            if (wait > 0) {
+                rejectedByEmail.increment();
+            }
+        }
+        return wait;
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        byAddress.sweep();
+        byEmail.sweep();
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.rate.limit.rejected")
+                .tag("key", key)
+                .description("Login and registration attempts refused by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    private static void bucketGauge(MeterRegistry meterRegistry, String key, TokenBucketLimiter limiter) {
+        Gauge.builder("auth.rate.limit.buckets", limiter, TokenBucketLimiter::size)
+                .tag("key", key)
+                .description("Rate limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keyed token buckets, each held in a single AtomicLong and updated with one
+ * compare-and-set (the GCRA formulation of a token bucket). The long stores
+ * the time at which the bucket will be full again; a bucket whose time has
+ * passed is indistinguishable from a new one, so {@link #sweep()} can drop
+ * it without losing state.
+ */
+class TokenBucketLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    TokenBucketLimiter(int capacity, int refillPerMinute) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstNanos = emissionIntervalNanos * capacity;
+    }
+
+    /**
+     * Takes a token for {@code key}. Returns 0 when one was available, or
+     * the nanoseconds until the next token otherwise.
+     */
+    long tryAcquire(String key) {
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops buckets that have refilled completely and returns how many were dropped
+    int sweep() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
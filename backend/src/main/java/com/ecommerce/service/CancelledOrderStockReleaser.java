@@ -0,0 +1,35 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order.OrderStatus;
+import com.ecommerce.entity.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts the units of cancelled orders back in stock, with one JDBC batch per
+ * dispatched batch of events. The product detail cache is patched by
+ * InventoryService once the release commits.
+ */
+@Component
+public class CancelledOrderStockReleaser implements OrderEventConsumer {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Override
+    public void onTransitions(List<OrderTransition> transitions) {
+        Map<Long, Integer> units = new HashMap<>();
+        for (OrderTransition transition : transitions) {
+            if (transition.getTo() == OrderStatus.CANCELLED) {
+                for (OrderItem item : transition.getOrder().getOrderItems()) {
+                    units.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        inventoryService.increaseAll(units);
+    }
+}
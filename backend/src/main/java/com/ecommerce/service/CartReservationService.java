@@ -0,0 +1,189 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CartReservationDto;
+import com.ecommerce.entity.CartReservation;
+import com.ecommerce.repository.CartReservationRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.InventoryService.StockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Holds stock for a cart for a limited time. Holding takes the units out of
+ * units_in_stock straight away; a scheduled sweeper walks the expires_at
+ * index and puts the units of lapsed holds back in bulk.
+ *
+ * Carts need no account, so the units one cart and one client (signed-in
+ * email or address) may hold at once are capped. The client's and the
+ * cart's holds are locked before the totals are checked, so concurrent
+ * requests cannot both slip under a cap.
+ */
+@Service
+public class CartReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartReservationService.class);
+
+    @Autowired
+    private CartReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.reservation.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    @Value("${cart.reservation.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${cart.reservation.max-units-per-cart:100}")
+    private int maxUnitsPerCart;
+
+    @Value("${cart.reservation.max-units-per-client:200}")
+    private int maxUnitsPerClient;
+
+    public List<CartReservationDto> findByCart(String cartId) {
+        return reservationRepository.findByCartIdOrderByIdAsc(cartId).stream()
+                .map(r -> new CartReservationDto(r.getProduct().getId(), r.getQuantity(), r.getExpiresAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sets the number of units the cart holds for a product and restarts the
+     * hold's timer. Only the difference to the current hold touches stock;
+     * a quantity of zero releases the hold.
+     *
+     * @throws HoldLimitExceededException if raising the hold would take the
+     *         cart or the client past its cap
+     */
+    @Transactional
+    public StockResult hold(String cartId, String clientKey, Long productId, int quantity) {
+        // Client rows first, then the cart's, so concurrent holds always lock in the same order
+        List<CartReservation> clientHolds = reservationRepository.findLockedByClientKey(clientKey);
+        List<CartReservation> cartHolds = reservationRepository.findLockedByCartId(cartId);
+        Optional<CartReservation> existing = cartHolds.stream()
+                .filter(r -> r.getProduct().getId().equals(productId))
+                .findFirst();
+        int delta = quantity - existing.map(CartReservation::getQuantity).orElse(0);
+
+        if (delta > 0) {
+            if (activeUnits(cartHolds) + delta > maxUnitsPerCart
+                    || activeUnits(clientHolds) + delta > maxUnitsPerClient) {
+                throw new HoldLimitExceededException();
+            }
+            StockResult result = inventoryService.decrease(productId, delta);
+            if (result != StockResult.UPDATED) {
+                return result;
+            }
+        } else if (delta < 0) {
+            inventoryService.increase(productId, -delta);
+        }
+
+        if (quantity == 0) {
+            existing.ifPresent(reservationRepository::delete);
+            return StockResult.UPDATED;
+        }
+
+        CartReservation reservation = existing.orElseGet(() -> {
+            CartReservation created = new CartReservation();
+            created.setCartId(cartId);
+            created.setClientKey(clientKey);
+            created.setProduct(productRepository.getReferenceById(productId));
+            return created;
+        });
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        reservationRepository.save(reservation);
+        return StockResult.UPDATED;
+    }
+
+    /**
+     * Turns a cart's hold on a product into ordered units: the hold is
+     * removed, any units held beyond {@code quantity} go back to stock, and
+     * the number of ordered units the hold already covered is returned.
+     */
+    @Transactional
+    public int consume(String cartId, Long productId, int quantity) {
+        Optional<CartReservation> existing = reservationRepository.findLockedByCartIdAndProductId(cartId, productId);
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        int held = existing.get().getQuantity();
+        reservationRepository.delete(existing.get());
+        if (held > quantity) {
+            inventoryService.increase(productId, held - quantity);
+        }
+        return Math.min(held, quantity);
+    }
+
+    @Transactional
+    public void releaseAll(String cartId) {
+        release(reservationRepository.findLockedByCartId(cartId));
+    }
+
+    @Scheduled(fixedDelayString = "${cart.reservation.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        int total = 0;
+        Integer swept;
+        do {
+            swept = transactionTemplate.execute(status -> {
+                List<CartReservation> expired = reservationRepository
+                        .findLockedByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+                release(expired);
+                return expired.size();
+            });
+            total += swept == null ? 0 : swept;
+        } while (swept != null && swept == sweepBatchSize);
+
+        if (total > 0) {
+            log.debug("Released {} expired cart reservations", total);
+        }
+    }
+
+    // Lapsed holds the sweeper has not reached yet do not count
+    private static int activeUnits(List<CartReservation> reservations) {
+        LocalDateTime now = LocalDateTime.now();
+        return reservations.stream()
+                .filter(r -> r.getExpiresAt().isAfter(now))
+                .mapToInt(CartReservation::getQuantity)
+                .sum();
+    }
+
+    private void release(List<CartReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> units = new HashMap<>();
+        for (CartReservation reservation : reservations) {
+            units.merge(reservation.getProduct().getId(), reservation.getQuantity(), Integer::sum);
+        }
+        reservationRepository.deleteAllByIdInBatch(
+                reservations.stream().map(CartReservation::getId).collect(Collectors.toList()));
+        inventoryService.increaseAll(units);
+    }
+
+    public static class HoldLimitExceededException extends RuntimeException {
+        public HoldLimitExceededException() {
+            super("Cart reservation limit reached");
+        }
+    }
+}
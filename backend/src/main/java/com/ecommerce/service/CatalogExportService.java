@@ -0,0 +1,110 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog to an output stream one product at a time. Rows
+ * come from a forward-only cursor and each entity is detached once written,
+ * so memory use does not grow with the size of the catalog.
+ */
+@Service
+public class CatalogExportService {
+
+    static final String[] CSV_COLUMNS = {
+        "id", "sku", "name", "description", "unitPrice", "imageUrl", "active", "unitsInStock", "categoryId", "categoryName"
+    };
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Streams every product to {@code out} and returns the number of rows
+     * written. The stream is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(CatalogFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == CatalogFormat.CSV) {
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAll()) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                if (format == CatalogFormat.CSV) {
+                    writeCsv(writer, product);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(toDto(product)));
+                    writer.write('\n');
+                }
+                entityManager.detach(product);
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static ProductDto toDto(Product product) {
+        return new ProductDto(product.getId(), product.getSku(), product.getName(), product.getDescription(),
+                product.getUnitPrice(), product.getImageUrl(), product.isActive(), product.getUnitsInStock(),
+                product.getCategory().getName(), product.getCategory().getId());
+    }
+
+    private static void writeCsv(Writer writer, Product product) throws IOException {
+        BigDecimal price = product.getUnitPrice();
+        String[] values = {
+            String.valueOf(product.getId()),
+            product.getSku(),
+            product.getName(),
+            product.getDescription(),
+            price == null ? null : price.toPlainString(),
+            product.getImageUrl(),
+            String.valueOf(product.isActive()),
+            String.valueOf(product.getUnitsInStock()),
+            String.valueOf(product.getCategory().getId()),
+            product.getCategory().getName()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
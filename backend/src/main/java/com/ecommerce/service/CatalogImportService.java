@@ -0,0 +1,346 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.ImportReport;
+import com.ecommerce.dto.ImportReport.RowError;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ProductImportRow;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from a CSV or NDJSON stream. Rows are read in chunks,
+ * validated in parallel, and each chunk is upserted by sku with one JDBC
+ * batch in its own transaction. A chunk the database rejects is retried
+ * row by row so that only the offending rows are reported. Only the current
+ * chunk is held in memory.
+ *
+ * An existing product keeps any optional column the row leaves out, so a
+ * price list without stock or active columns changes neither. A row that
+ * does carry unitsInStock sets the stock to that number outright, not by a
+ * delta: it is a warehouse count, and this node's hot-product budget for
+ * the product is dropped because the count already includes those units.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO products (sku, name, description, unit_price, image_url, active, units_in_stock, " +
+            "date_created, last_updated, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = COALESCE(?, description), " +
+            "unit_price = VALUES(unit_price), image_url = COALESCE(?, image_url), active = COALESCE(?, active), " +
+            "units_in_stock = COALESCE(?, units_in_stock), last_updated = VALUES(last_updated), " +
+            "category_id = VALUES(category_id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryCacheService categoryCacheService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ImportReport importProducts(CatalogFormat format, InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        Map<Long, Long> categoryIds = new HashMap<>();
+        Map<String, Long> categoryIdsByName = new HashMap<>();
+        for (CategoryDto category : categoryCacheService.getSnapshot().getCategories()) {
+            categoryIds.put(category.getId(), category.getId());
+            categoryIdsByName.put(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource source = format == CatalogFormat.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        ParsedRow row;
+        while ((row = source.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, categoryIds, categoryIdsByName, report);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, categoryIds, categoryIdsByName, report);
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        report.setRowsPerSecond(report.getRowsRead() * 1000.0 / Math.max(report.getDurationMs(), 1));
+        log.info("Imported {} of {} products in {} ms ({} rows/s), {} rows failed", report.getRowsImported(),
+                report.getRowsRead(), report.getDurationMs(), Math.round(report.getRowsPerSecond()), report.getRowsFailed());
+        return report;
+    }
+
+    private void importChunk(List<ParsedRow> chunk, Map<Long, Long> categoryIds,
+                             Map<String, Long> categoryIdsByName, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        report.setRowsRead(report.getRowsRead() + chunk.size());
+
+        // Validation and category resolution need no database access, so run them in parallel
+        chunk.parallelStream()
+                .filter(r -> r.error == null)
+                .forEach(r -> validate(r, categoryIds, categoryIdsByName));
+
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+        for (ParsedRow r : chunk) {
+            if (r.error == null) {
+                valid.add(r);
+            } else {
+                reject(report, r, r.error);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                upsert(valid, now);
+                productRepository.bumpCatalogStructureVersion();
+            });
+            report.setRowsImported(report.getRowsImported() + valid.size());
+        } catch (DataAccessException e) {
+            log.debug("Batch upsert failed, retrying rows one by one", e);
+            List<ParsedRow> imported = new ArrayList<>(valid.size());
+            for (ParsedRow r : valid) {
+                try {
+                    upsert(List.of(r), now);
+                    imported.add(r);
+                } catch (DataAccessException rowError) {
+                    reject(report, r, rowError.getMostSpecificCause().getMessage());
+                }
+            }
+            report.setRowsImported(report.getRowsImported() + imported.size());
+            valid.retainAll(imported);
+            if (!imported.isEmpty()) {
+                productRepository.bumpCatalogStructureVersion();
+            }
+        }
+
+        refreshDerivedState(valid.stream().map(r -> r.row.getSku()).collect(Collectors.toSet()),
+                valid.stream().filter(r -> r.row.getUnitsInStock() != null).map(r -> r.row.getSku()).collect(Collectors.toSet()));
+    }
+
+    private void validate(ParsedRow r, Map<Long, Long> categoryIds, Map<String, Long> categoryIdsByName) {
+        Set<ConstraintViolation<ProductImportRow>> violations = validator.validate(r.row);
+        if (!violations.isEmpty()) {
+            r.error = violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return;
+        }
+        ProductImportRow row = r.row;
+        if (row.getCategoryId() != null) {
+            r.categoryId = categoryIds.get(row.getCategoryId());
+        } else if (row.getCategoryName() != null) {
+            r.categoryId = categoryIdsByName.get(row.getCategoryName().toLowerCase(Locale.ROOT));
+        }
+        if (r.categoryId == null) {
+            r.error = "Unknown category";
+        }
+    }
+
+    private void upsert(List<ParsedRow> rows, Timestamp now) {
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        for (ParsedRow r : rows) {
+            ProductImportRow row = r.row;
+            // New products get defaults for what the row leaves out; existing ones keep their values
+            batch.add(new Object[] {
+                row.getSku(), row.getName(), row.getDescription(), row.getUnitPrice(), row.getImageUrl(),
+                row.getActive() == null || row.getActive(),
+                row.getUnitsInStock() == null ? 0 : row.getUnitsInStock(),
+                now, now, r.categoryId,
+                row.getDescription(), row.getImageUrl(), row.getActive(), row.getUnitsInStock()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+
+    // The upsert bypasses JPA, so bring the search index and caches up to date by hand
+    private void refreshDerivedState(Set<String> skus, Set<String> stockResetSkus) {
+        if (skus.isEmpty()) {
+            return;
+        }
+        for (ProductDto product : productRepository.findAllAsDtoBySkuIn(skus)) {
+            productSearchIndex.index(product);
+            productCacheService.evict(product.getId());
+            // Budgets of products whose stock the row left alone are still backed by the database
+            if (stockResetSkus.contains(product.getSku())) {
+                inventoryService.discardBudget(product.getId());
+            }
+        }
+    }
+
+    private void reject(ImportReport report, ParsedRow r, String message) {
+        report.setRowsFailed(report.getRowsFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new RowError(r.line, r.row == null ? null : r.row.getSku(), message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static class ParsedRow {
+        final long line;
+        final ProductImportRow row;
+        volatile String error;
+        volatile Long categoryId;
+
+        ParsedRow(long line, ProductImportRow row, String error) {
+            this.line = line;
+            this.row = row;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private class NdjsonRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            try {
+                return new ParsedRow(line, objectMapper.readValue(text, ProductImportRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class CsvRowSource implements RowSource {
+
+        private final CsvReader reader;
+        private Map<String, Integer> columns;
+
+        CsvRowSource(BufferedReader reader) {
+            this.reader = new CsvReader(reader);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (columns == null) {
+                List<String> header = reader.next();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim(), i);
+                }
+            }
+
+            List<String> fields = reader.next();
+            if (fields == null) {
+                return null;
+            }
+            long line = reader.getRecordLine();
+            ProductImportRow row = new ProductImportRow();
+            row.setSku(field(fields, "sku"));
+            row.setName(field(fields, "name"));
+            row.setDescription(field(fields, "description"));
+            row.setImageUrl(field(fields, "imageUrl"));
+            row.setCategoryName(field(fields, "categoryName"));
+            String column = null;
+            try {
+                column = "unitPrice";
+                String value = field(fields, column);
+                row.setUnitPrice(value == null ? null : new BigDecimal(value));
+                column = "unitsInStock";
+                value = field(fields, column);
+                row.setUnitsInStock(value == null ? null : Integer.valueOf(value));
+                column = "categoryId";
+                value = field(fields, column);
+                row.setCategoryId(value == null ? null : Long.valueOf(value));
+            } catch (NumberFormatException e) {
+                return new ParsedRow(line, row, column + " is not a valid number");
+            }
+            String active = field(fields, "active");
+            row.setActive(active == null ? null : Boolean.valueOf(active));
+            return new ParsedRow(line, row, null);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.repository.CategoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Serves categories from an immutable in-memory snapshot. The snapshot is
+ * loaded at startup and rebuilt by the first read after a committed
+ * category write. Each snapshot remembers the generation it was loaded in;
+ * writes bump the generation, so a load that overlapped a write is never
+ * served once it finishes. Each snapshot carries an ETag digested from its
+ * content so clients can revalidate without downloading the list again.
+ */
+@Service
+public class CategoryCacheService {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Lock reloadLock = new ReentrantLock();
+
+    public CategoryCacheService(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("category.cache.gets").tag("result", "hit")
+                .description("Category reads served from the in-memory snapshot").register(meterRegistry);
+        this.misses = Counter.builder("category.cache.gets").tag("result", "miss")
+                .description("Category reads that had to reload the snapshot").register(meterRegistry);
+        Gauge.builder("category.cache.size", this, c -> {
+            Snapshot current = c.snapshot;
+            return current == null ? 0 : current.categories.size();
+        }).description("Categories held in the snapshot").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        getSnapshot();
+    }
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (isCurrent(current)) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        // A lock rather than a monitor, so a virtual thread waiting on the reload does not pin its carrier
+        reloadLock.lock();
+        try {
+            current = snapshot;
+            if (!isCurrent(current)) {
+                // Read the generation before the rows: a write committing mid-load leaves this snapshot stale
+                current = load(generation.get());
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Retires the snapshot once the current transaction commits, or straight
+     * away when there is none.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private boolean isCurrent(Snapshot current) {
+        return current != null && current.generation == generation.get();
+    }
+
+    private Snapshot load(long generation) {
+        List<CategoryDto> categories = categoryRepository.findAll().stream()
+                .map(c -> new CategoryDto(c.getId(), c.getName(), c.getDescription()))
+                .collect(Collectors.toList());
+        return new Snapshot(categories, generation);
+    }
+
+    public static final class Snapshot {
+
+        private final List<CategoryDto> categories;
+        private final Map<Long, CategoryDto> byId;
+        private final String etag;
+        private final long loadedAt;
+        private final long generation;
+
+        private Snapshot(List<CategoryDto> categories, long generation) {
+            this.categories = Collections.unmodifiableList(categories);
+            Map<Long, CategoryDto> index = new LinkedHashMap<>();
+            categories.forEach(c -> index.put(c.getId(), c));
+            this.byId = Collections.unmodifiableMap(index);
+            this.etag = etagOf(categories);
+            this.loadedAt = System.currentTimeMillis();
+            this.generation = generation;
+        }
+
+        public List<CategoryDto> getCategories() {
+            return categories;
+        }
+
+        public CategoryDto get(Long id) {
+            return byId.get(id);
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        // Categories carry no timestamps; a snapshot is never older than the last committed change
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+
+        // A digest of the rendered content, so different content cannot share a tag as hash codes can
+        public static String etagOf(Object content) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                byte[] hash = md.digest(String.valueOf(content).getBytes(StandardCharsets.UTF_8));
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
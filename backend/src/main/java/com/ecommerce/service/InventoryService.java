@@ -0,0 +1,290 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.StockAdjustment;
+import com.ecommerce.dto.StockAdjustmentResult;
+import com.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stock changes as conditional, atomic UPDATE statements so
+ * concurrent buyers can never drive units_in_stock below zero. Calls join
+ * the caller's transaction when there is one.
+ *
+ * Products listed in {@code inventory.hot-products.ids} are additionally
+ * served from a striped in-memory budget. A background rebalance claims
+ * budget from the database in chunks and returns any surplus in one JDBC
+ * batch; request threads never touch the database while the budget lasts
+ * and fall back to the conditional update when it runs dry.
+ *
+ * The budget is opt-in and trades accuracy for throughput. While a node
+ * holds up to two chunks of a product, those units are missing from
+ * units_in_stock, so product pages and the database under-report stock by
+ * that much. The budget only goes back to the database on rebalance and
+ * on a clean shutdown; if the process dies, the units it held are lost
+ * until the stock level is set again, e.g. by an admin update or a
+ * warehouse sync. That errs towards underselling: units the database has
+ * given out are never sold twice.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    public enum StockResult {
+        UPDATED, INSUFFICIENT, NOT_FOUND
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.hot-products.ids:}")
+    private Set<Long> hotProductIds;
+
+    @Value("${inventory.hot-products.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${inventory.bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    private final Map<Long, StripedStockCounter> hotCounters = new ConcurrentHashMap<>();
+
+    public StockResult decrease(Long productId, int quantity) {
+        StripedStockCounter counter = hotCounters.get(productId);
+        if (counter != null && counter.tryDecrease(quantity)) {
+            // Give the units back to the local budget if the surrounding transaction rolls back
+            afterRollback(() -> counter.increase(quantity));
+            return StockResult.UPDATED;
+        }
+
+        LocalDateTime now = now();
+        if (productRepository.decreaseStock(productId, quantity, now) == 1) {
+            productCacheService.stockChanged(productId, -quantity, now);
+            return StockResult.UPDATED;
+        }
+        return productRepository.existsById(productId) ? StockResult.INSUFFICIENT : StockResult.NOT_FOUND;
+    }
+
+    public StockResult increase(Long productId, int quantity) {
+        LocalDateTime now = now();
+        if (productRepository.increaseStock(productId, quantity, now) == 1) {
+            productCacheService.stockChanged(productId, quantity, now);
+            return StockResult.UPDATED;
+        }
+        return StockResult.NOT_FOUND;
+    }
+
+    /**
+     * Adds stock to many products with one JDBC batch, joining the caller's
+     * transaction when there is one.
+     */
+    public void increaseAll(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, units) -> batch.add(new Object[] {units, timestamp, productId}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE products SET units_in_stock = units_in_stock + ?, last_updated = ? WHERE id = ?", batch);
+        productCacheService.stockChanged(quantities, now);
+    }
+
+    /**
+     * Applies many stock adjustments as conditional JDBC batches, one
+     * transaction per batch, and returns a result per adjustment in request
+     * order. Adjustments that would take a product below zero units are
+     * skipped, not clamped; products are identified by id or by sku.
+     */
+    public List<StockAdjustmentResult> adjustAll(List<StockAdjustment> adjustments) {
+        Set<String> skus = adjustments.stream()
+                .map(StockAdjustment::getSku)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Long> idsBySku = skus.isEmpty() ? Collections.emptyMap()
+                : productRepository.findAllAsDtoBySkuIn(skus).stream()
+                        .collect(Collectors.toMap(ProductDto::getSku, ProductDto::getId));
+
+        List<StockAdjustmentResult> results = new ArrayList<>(adjustments.size());
+        List<StockAdjustmentResult> pending = new ArrayList<>(adjustments.size());
+        for (StockAdjustment adjustment : adjustments) {
+            Long productId = adjustment.getProductId() != null ? adjustment.getProductId() : idsBySku.get(adjustment.getSku());
+            StockAdjustmentResult result = new StockAdjustmentResult(productId, adjustment.getSku(), adjustment.getDelta(),
+                    productId == null ? StockResult.NOT_FOUND : null);
+            results.add(result);
+            if (productId != null) {
+                pending.add(result);
+            }
+        }
+
+        Set<Long> unchanged = new HashSet<>();
+        for (int from = 0; from < pending.size(); from += bulkBatchSize) {
+            List<StockAdjustmentResult> batch = pending.subList(from, Math.min(from + bulkBatchSize, pending.size()));
+            transactionTemplate.executeWithoutResult(status -> applyBatch(batch, unchanged));
+        }
+
+        // A zero update count means either no such product or not enough stock
+        if (!unchanged.isEmpty()) {
+            Set<Long> existing = productRepository.findAllAsDtoByIdIn(unchanged).stream()
+                    .map(ProductDto::getId)
+                    .collect(Collectors.toSet());
+            for (StockAdjustmentResult result : pending) {
+                if (result.getStatus() == null) {
+                    result.setStatus(existing.contains(result.getProductId()) ? StockResult.INSUFFICIENT : StockResult.NOT_FOUND);
+                }
+            }
+        }
+        return results;
+    }
+
+    private void applyBatch(List<StockAdjustmentResult> batch, Set<Long> unchanged) {
+        LocalDateTime now = now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (StockAdjustmentResult result : batch) {
+            args.add(new Object[] {result.getDelta(), timestamp, result.getProductId(), result.getDelta()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE products SET units_in_stock = units_in_stock + ?, last_updated = ? " +
+                "WHERE id = ? AND units_in_stock + ? >= 0", args);
+        for (int i = 0; i < batch.size(); i++) {
+            StockAdjustmentResult result = batch.get(i);
+            if (counts[i] == 0) {
+                unchanged.add(result.getProductId());
+            } else {
+                result.setStatus(StockResult.UPDATED);
+                productCacheService.stockChanged(result.getProductId(), result.getDelta(), now);
+            }
+        }
+    }
+
+    /**
+     * Drops the local budget of a product whose stock level was overwritten
+     * outright, e.g. by an admin update.
+     */
+    public void discardBudget(Long productId) {
+        StripedStockCounter counter = hotCounters.get(productId);
+        if (counter != null) {
+            counter.drain();
+        }
+    }
+
+    /**
+     * Tops every hot product's budget up to one chunk and returns anything
+     * above two chunks to the database in a single batch.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot-products.flush-interval-ms:1000}")
+    public void rebalance() {
+        Map<Long, Integer> surplus = new HashMap<>();
+        for (Long productId : hotProductIds) {
+            StripedStockCounter counter = hotCounters.computeIfAbsent(productId,
+                    id -> new StripedStockCounter(Runtime.getRuntime().availableProcessors()));
+            int available = counter.available();
+            if (available < chunkSize) {
+                claim(productId, counter, chunkSize - available);
+            } else if (available > 2 * chunkSize) {
+                int units = counter.drain();
+                counter.increase(Math.min(units, chunkSize));
+                if (units > chunkSize) {
+                    surplus.put(productId, units - chunkSize);
+                }
+            }
+        }
+        returnToDatabase(surplus);
+    }
+
+    @PreDestroy
+    public void flush() {
+        Map<Long, Integer> budgets = new HashMap<>();
+        hotCounters.forEach((productId, counter) -> {
+            int units = counter.drain();
+            if (units > 0) {
+                budgets.put(productId, units);
+            }
+        });
+        returnToDatabase(budgets);
+    }
+
+    private void claim(Long productId, StripedStockCounter counter, int units) {
+        try {
+            LocalDateTime now = now();
+            Integer updated = transactionTemplate.execute(status ->
+                    productRepository.decreaseStock(productId, units, now));
+            if (updated != null && updated == 1) {
+                counter.increase(units);
+                productCacheService.stockChanged(productId, -units, now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim stock budget for product {}", productId, e);
+        }
+    }
+
+    private void returnToDatabase(Map<Long, Integer> budgets) {
+        if (budgets.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> increaseAll(budgets));
+        } catch (RuntimeException e) {
+            log.error("Failed to return stock budget to the database, keeping it in memory", e);
+            budgets.forEach((productId, units) -> {
+                StripedStockCounter counter = hotCounters.get(productId);
+                if (counter != null) {
+                    counter.increase(units);
+                }
+            });
+        }
+    }
+
+    // DATETIME(6) keeps microseconds, so the cached copy gets exactly the stored value
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
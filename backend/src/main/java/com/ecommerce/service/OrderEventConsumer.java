@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import java.util.List;
+
+/**
+ * Receives order status transitions drained from the outbox. Consumers are
+ * called inside the dispatcher's transaction, so their database writes
+ * commit together with the removal of the events; when a consumer throws,
+ * the events are delivered again later. Delivery is at least once, so
+ * anything done outside that transaction must tolerate repeats.
+ */
+public interface OrderEventConsumer {
+
+    void onTransitions(List<OrderTransition> transitions);
+}
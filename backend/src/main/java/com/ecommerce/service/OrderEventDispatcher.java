@@ -0,0 +1,135 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderEvent;
+import com.ecommerce.repository.OrderEventRepository;
+import com.ecommerce.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the order_events outbox in the background and fans each batch out
+ * to every {@link OrderEventConsumer}, so requests that change an order only
+ * pay for one outbox insert. A batch is locked with SKIP LOCKED, its orders
+ * are loaded with their items in one query, and the events are deleted in
+ * the same transaction as the consumers' writes.
+ *
+ * If a batch fails it is retried one event at a time; an event that still
+ * fails has its attempts counted and is left for the next run, until it
+ * reaches {@code order.events.max-attempts}.
+ */
+@Service
+public class OrderEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventDispatcher.class);
+
+    private final OrderEventRepository eventRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final List<OrderEventConsumer> consumers;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final Counter dispatched;
+
+    private final Counter failed;
+
+    public OrderEventDispatcher(OrderEventRepository eventRepository,
+                                OrderRepository orderRepository,
+                                TransactionTemplate transactionTemplate,
+                                List<OrderEventConsumer> consumers,
+                                MeterRegistry meterRegistry,
+                                @Value("${order.events.batch-size:200}") int batchSize,
+                                @Value("${order.events.max-attempts:10}") int maxAttempts) {
+        this.eventRepository = eventRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.dispatched = meterRegistry.counter("order.events.dispatched");
+        this.failed = meterRegistry.counter("order.events.failed");
+    }
+
+    @Scheduled(fixedDelayString = "${order.events.dispatch-interval-ms:500}")
+    public void dispatch() {
+        int total = 0;
+        int delivered;
+        do {
+            delivered = dispatchBatch();
+            total += delivered;
+        } while (delivered == batchSize);
+
+        if (total > 0) {
+            log.debug("Dispatched {} order events", total);
+        }
+    }
+
+    private int dispatchBatch() {
+        try {
+            Integer delivered = transactionTemplate.execute(status -> {
+                List<OrderEvent> events = eventRepository.findLockedForDispatch(maxAttempts, PageRequest.of(0, batchSize));
+                deliver(events);
+                return events.size();
+            });
+            return delivered == null ? 0 : delivered;
+        } catch (RuntimeException e) {
+            log.warn("Order event batch failed, retrying its events one at a time", e);
+            dispatchOneByOne();
+            // Stop here so failing events wait for the next run instead of being retried in a tight loop
+            return 0;
+        }
+    }
+
+    private void dispatchOneByOne() {
+        for (Long id : eventRepository.findIdsForDispatch(maxAttempts, PageRequest.of(0, batchSize))) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        eventRepository.findLockedById(id).ifPresent(event -> deliver(List.of(event))));
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("Failed to deliver order event {}", id, e);
+                transactionTemplate.executeWithoutResult(status -> eventRepository.incrementAttempts(id));
+            }
+        }
+    }
+
+    private void deliver(List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<Long, Order> orders = orderRepository.findWithItemsByIdIn(
+                        events.stream().map(OrderEvent::getOrderId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        // Events of orders deleted since are dropped
+        List<OrderTransition> transitions = events.stream()
+                .filter(event -> orders.containsKey(event.getOrderId()))
+                .map(event -> new OrderTransition(orders.get(event.getOrderId()), event.getFromStatus(), event.getToStatus()))
+                .collect(Collectors.toList());
+
+        if (!transitions.isEmpty()) {
+            for (OrderEventConsumer consumer : consumers) {
+                consumer.onTransitions(transitions);
+            }
+        }
+        eventRepository.deleteAllInBatch(events);
+        dispatched.increment(events.size());
+    }
+}
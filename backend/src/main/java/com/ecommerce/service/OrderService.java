@@ -0,0 +1,217 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderRequest;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Order.OrderStatus;
+import com.ecommerce.entity.OrderEvent;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.User;
+import com.ecommerce.repository.OrderEventRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.InventoryService.StockResult;
+import com.ecommerce.util.TrackingNumberGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderService {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CartReservationService cartReservationService;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private TrackingNumberGenerator trackingNumberGenerator;
+
+    /**
+     * Places an order in a single transaction: prices are checked against
+     * the catalog, stock is taken from the cart's reservations or else
+     * decremented atomically, and the order is inserted together with its
+     * items and an outbox event. Any rejection rolls the whole order back.
+     *
+     * @throws OrderRejectedException if a product is unknown, inactive,
+     *         repriced or out of stock
+     */
+    @Transactional
+    public OrderDto placeOrder(String email, OrderRequest request) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new OrderRejectedException("User not found"));
+
+        Map<Long, OrderItemRequest> lines = new LinkedHashMap<>();
+        for (OrderItemRequest line : request.getItems()) {
+            if (lines.putIfAbsent(line.getProductId(), line) != null) {
+                throw new OrderRejectedException("Product " + line.getProductId() + " appears more than once");
+            }
+        }
+        Map<Long, ProductDto> products = productRepository.findAllAsDtoByIdIn(lines.keySet()).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+
+        Order order = new Order();
+        order.setOrderTrackingNumber(trackingNumberGenerator.next());
+        order.setUser(user);
+        copyAddresses(request, order);
+
+        List<OrderItemDto> itemDtos = new ArrayList<>();
+        for (OrderItemRequest line : lines.values()) {
+            ProductDto product = products.get(line.getProductId());
+            if (product == null || !product.isActive()) {
+                throw new OrderRejectedException("Product " + line.getProductId() + " is not available");
+            }
+            if (product.getUnitPrice().compareTo(line.getUnitPrice()) != 0) {
+                throw new OrderRejectedException("The price of " + product.getName() + " has changed");
+            }
+            takeStock(request.getCartId(), product, line.getQuantity());
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(productRepository.getReferenceById(product.getId()));
+            item.setCategoryId(product.getCategoryId());
+            item.setQuantity(line.getQuantity());
+            item.setUnitPrice(product.getUnitPrice());
+            item.setImageUrl(product.getImageUrl());
+            order.getOrderItems().add(item);
+            itemDtos.add(new OrderItemDto(product.getId(), product.getName(), product.getImageUrl(),
+                    line.getQuantity(), product.getUnitPrice()));
+        }
+
+        // Items cascade from the order and are inserted as one JDBC batch; persisting sets the totals
+        orderRepository.save(order);
+        publish(order, null, order.getStatus());
+
+        return new OrderDto(order.getId(), order.getOrderTrackingNumber(), order.getTotalPrice(),
+                order.getTotalQuantity(), order.getStatus().name(), order.getDateCreated(), itemDtos);
+    }
+
+    /**
+     * Moves an order to another status and records the transition in the
+     * outbox in the same transaction. Work that follows from it, such as
+     * putting the stock of a cancelled order back, is done by the outbox
+     * consumers after the request returns. With an email, only that user's
+     * order is considered.
+     *
+     * @return the updated order, or empty if there is no such order
+     * @throws OrderRejectedException if the order cannot move to that status
+     */
+    @Transactional
+    public Optional<OrderDto> changeStatus(Long orderId, OrderStatus next, String email) {
+        Optional<Order> found = email == null
+                ? orderRepository.findLockedById(orderId)
+                : orderRepository.findLockedByIdAndUserEmail(orderId, email);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Order order = found.get();
+        OrderStatus current = order.getStatus();
+        if (!current.canMoveTo(next)) {
+            throw new OrderRejectedException("Order " + order.getOrderTrackingNumber() + " cannot move from "
+                    + current + " to " + next);
+        }
+        order.setStatus(next);
+        publish(order, current, next);
+        return Optional.of(toDto(order));
+    }
+
+    /**
+     * Returns a page of the user's orders, newest first, with their items.
+     * Loading takes at most three statements however long the history is:
+     * the page of ids, its count, and one fetch join for the orders, items
+     * and products of that page. The count is skipped when the first page
+     * already holds the whole history (see OrderHistoryStatementCountTest).
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderDto> findHistory(String email, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("dateCreated").descending().and(Sort.by("id").descending()));
+        Page<Long> ids = orderRepository.findIdsByUserEmail(email, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, ids.getTotalElements());
+        }
+
+        Map<Long, Order> orders = orderRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<OrderDto> content = ids.getContent().stream()
+                .map(orders::get)
+                .map(OrderService::toDto)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    private static OrderDto toDto(Order order) {
+        List<OrderItemDto> items = order.getOrderItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getId))
+                .map(item -> new OrderItemDto(item.getProduct().getId(), item.getProduct().getName(),
+                        item.getImageUrl(), item.getQuantity(), item.getUnitPrice()))
+                .collect(Collectors.toList());
+        return new OrderDto(order.getId(), order.getOrderTrackingNumber(), order.getTotalPrice(),
+                order.getTotalQuantity(), order.getStatus().name(), order.getDateCreated(), items);
+    }
+
+    private void publish(Order order, OrderStatus from, OrderStatus to) {
+        OrderEvent event = new OrderEvent();
+        event.setOrderId(order.getId());
+        event.setFromStatus(from);
+        event.setToStatus(to);
+        orderEventRepository.save(event);
+    }
+
+    private void takeStock(String cartId, ProductDto product, int quantity) {
+        int held = cartId == null ? 0 : cartReservationService.consume(cartId, product.getId(), quantity);
+        if (held < quantity && inventoryService.decrease(product.getId(), quantity - held) != StockResult.UPDATED) {
+            throw new OrderRejectedException("Insufficient stock for " + product.getName());
+        }
+    }
+
+    private static void copyAddresses(OrderRequest request, Order order) {
+        order.setShippingAddress(request.getShippingAddress());
+        order.setShippingCity(request.getShippingCity());
+        order.setShippingState(request.getShippingState());
+        order.setShippingCountry(request.getShippingCountry());
+        order.setShippingZipCode(request.getShippingZipCode());
+        order.setBillingAddress(request.getBillingAddress());
+        order.setBillingCity(request.getBillingCity());
+        order.setBillingState(request.getBillingState());
+        order.setBillingCountry(request.getBillingCountry());
+        order.setBillingZipCode(request.getBillingZipCode());
+    }
+
+    public static class OrderRejectedException extends RuntimeException {
+        public OrderRejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderSummaryDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.repository.UserOrderStatsRepository;
+import com.ecommerce.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps per-user and per-day order totals up to date as orders are placed
+ * and change status, so reads never sum over orders or order_items. An
+ * order counts from the moment it is placed until it is cancelled; each
+ * transition that changes that applies a relative upsert to the user's row
+ * and to one shard row of the day the order was placed. Transitions arrive
+ * from the order event outbox, in the transaction that removes the events,
+ * so every one is applied exactly once. A dispatched batch is summed per
+ * user and per day shard first, then written as two JDBC batches: users in
+ * id order, then day shards in (day, shard) order. Every transaction takes
+ * the row locks in that one order, so two dispatchers cannot deadlock on
+ * them. Orders placed before the stats existed were folded in by the V15
+ * migration.
+ */
+@Service
+public class OrderStatsService implements OrderEventConsumer {
+
+    private static final String UPSERT_USER_SQL =
+            "INSERT INTO user_order_stats (user_id, order_count, item_quantity, revenue_minor, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "item_quantity = item_quantity + VALUES(item_quantity), " +
+            "revenue_minor = revenue_minor + VALUES(revenue_minor), last_updated = VALUES(last_updated)";
+
+    private static final String UPSERT_DAY_SQL =
+            "INSERT INTO daily_order_stats (stat_date, shard, order_count, item_quantity, revenue_minor, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "item_quantity = item_quantity + VALUES(item_quantity), " +
+            "revenue_minor = revenue_minor + VALUES(revenue_minor), last_updated = VALUES(last_updated)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserOrderStatsRepository userOrderStatsRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${order.stats.daily-shards:8}")
+    private int dailyShards;
+
+    @Override
+    public void onTransitions(List<OrderTransition> transitions) {
+        Map<Long, Totals> users = new TreeMap<>();
+        Map<LocalDate, Map<Integer, Totals>> days = new TreeMap<>();
+        for (OrderTransition transition : transitions) {
+            meterRegistry.counter("order.transitions", "status", transition.getTo().name()).increment();
+            int sign = transition.getCountDelta();
+            if (sign == 0) {
+                continue;
+            }
+            Order order = transition.getOrder();
+            Long userId = order.getUser().getId();
+            long quantity = sign * (long) order.getTotalQuantity();
+            long revenueMinor = sign * Money.toMinor(order.getTotalPrice());
+            users.computeIfAbsent(userId, id -> new Totals()).add(sign, quantity, revenueMinor);
+            days.computeIfAbsent(order.getDateCreated().toLocalDate(), day -> new TreeMap<>())
+                    .computeIfAbsent(shardOf(userId), shard -> new Totals())
+                    .add(sign, quantity, revenueMinor);
+        }
+        apply(users, days);
+    }
+
+    // Keys are sorted so concurrent dispatchers lock stats rows in the same order
+    private void apply(Map<Long, Totals> users, Map<LocalDate, Map<Integer, Totals>> days) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        users.forEach((id, t) -> userRows.add(new Object[] {id, t.orders, t.quantity, t.revenueMinor, now}));
+        List<Object[]> dayRows = new ArrayList<>();
+        days.forEach((day, shards) -> shards.forEach((shard, t) ->
+                dayRows.add(new Object[] {Date.valueOf(day), shard, t.orders, t.quantity, t.revenueMinor, now})));
+
+        jdbcTemplate.batchUpdate(UPSERT_USER_SQL, userRows);
+        jdbcTemplate.batchUpdate(UPSERT_DAY_SQL, dayRows);
+    }
+
+    public OrderSummaryDto findSummary(String email) {
+        return userOrderStatsRepository.findByUserEmail(email)
+                .map(s -> new OrderSummaryDto(s.getOrderCount(), s.getItemQuantity(), Money.fromMinor(s.getRevenueMinor())))
+                .orElseGet(() -> new OrderSummaryDto(0, 0, Money.fromMinor(0)));
+    }
+
+    private int shardOf(Long userId) {
+        return (int) Math.floorMod(userId, (long) dailyShards);
+    }
+
+    private static final class Totals {
+        long orders;
+        long quantity;
+        long revenueMinor;
+
+        void add(int orders, long quantity, long revenueMinor) {
+            this.orders += orders;
+            this.quantity += quantity;
+            this.revenueMinor += revenueMinor;
+        }
+    }
+}
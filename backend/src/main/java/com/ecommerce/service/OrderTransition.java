@@ -0,0 +1,28 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Order.OrderStatus;
+import lombok.Value;
+
+/**
+ * An order status change as delivered to {@link OrderEventConsumer}s.
+ * {@code from} is null for a newly placed order.
+ */
+@Value
+public class OrderTransition {
+    Order order;
+    OrderStatus from;
+    OrderStatus to;
+
+    /**
+     * How this transition changes whether the order counts towards sales:
+     * 1 when it is placed, -1 when it is cancelled, otherwise 0.
+     */
+    public int getCountDelta() {
+        return (counts(to) ? 1 : 0) - (counts(from) ? 1 : 0);
+    }
+
+    private static boolean counts(OrderStatus status) {
+        return status != null && status != OrderStatus.CANCELLED;
+    }
+}
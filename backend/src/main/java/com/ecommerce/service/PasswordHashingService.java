@@ -0,0 +1,134 @@
+package com.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification on a small, CPU-sized pool with a
+ * bounded queue, so a burst of logins cannot take every request thread.
+ * When the queue is full the work is refused straight away with
+ * {@link HashingSaturatedException} rather than queued without bound.
+ *
+ * Only the hashing itself runs on the pool: callers read the users row
+ * before submitting, and results are handed back on the application task
+ * executor, so database work never occupies a hashing thread.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final String METRIC_NAME = "password.hashing";
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Executor completionExecutor;
+
+    private final ThreadPoolExecutor hashingExecutor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    // Verified against when the user does not exist, so unknown emails cost as much as wrong passwords
+    private final String decoyHash;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Qualifier("applicationTaskExecutor") Executor completionExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password-hashing.threads:0}") int threads,
+                                  @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.completionExecutor = completionExecutor;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // executor.queued, executor.active, executor.pool.size and friends, tagged name=passwordHashing
+        ExecutorServiceMetrics.monitor(meterRegistry, hashingExecutor, "passwordHashing");
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder(METRIC_NAME + ".rejected")
+                .description("Hashing requests refused because the queue was full")
+                .register(meterRegistry);
+        this.decoyHash = passwordEncoder.encode("decoy password of unknown users");
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Verifies a password for an email that has no account, at the cost of a
+     * real verification; the result is always false.
+     */
+    public CompletableFuture<Boolean> matchesUnknownUser(String rawPassword) {
+        return submit(matchesTimer, () -> {
+            passwordEncoder.matches(rawPassword, decoyHash);
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            hashingExecutor.execute(() -> {
+                try {
+                    T value = timer.record(task);
+                    completionExecutor.execute(() -> result.complete(value));
+                } catch (Throwable e) {
+                    completionExecutor.execute(() -> result.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingSaturatedException();
+        }
+        return result;
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(METRIC_NAME)
+                .tag("operation", operation)
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public static class HashingSaturatedException extends RuntimeException {
+        public HashingSaturatedException() {
+            super("Password hashing queue is full");
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches product detail lookups by id. Caffeine's W-TinyLFU eviction keeps
+ * frequently viewed products resident while one-off views of the long tail
+ * do not push them out. The cache is bounded by an estimate of the bytes
+ * held rather than by entry count.
+ *
+ * Admin writes evict the entry; once a stock change has committed, the
+ * cached entry is replaced by a copy carrying the new unitsInStock and the
+ * lastUpdated the database row was given, so ETags match a fresh load. Cached
+ * instances are never modified, so a request serializing one cannot see a
+ * half-applied change. Entries also expire after a while so any drift is
+ * bounded.
+ *
+ * Misses are loaded on a small pool of the cache's own instead of inside
+ * the cache's map lock, so a load blocked on the database never pins a
+ * virtual thread's carrier, and a burst of misses cannot queue behind
+ * exports or password hashing on the shared task executor. When the pool's
+ * queue is full the caller loads the product itself.
+ */
+@Service
+public class ProductCacheService {
+
+    public static final String CACHE_NAME = "productDetails";
+
+    // Rough per-entry cost of the Product and Category objects excluding strings
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final ProductRepository productRepository;
+
+    private final ThreadPoolExecutor loadExecutor;
+
+    private final AsyncLoadingCache<Long, Optional<Product>> cache;
+
+    public ProductCacheService(ProductRepository productRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${product.cache.max-bytes:33554432}") long maxBytes,
+                               @Value("${product.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                               @Value("${product.cache.load-threads:8}") int loadThreads,
+                               @Value("${product.cache.load-queue-capacity:1000}") int loadQueueCapacity) {
+        this.productRepository = productRepository;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loadExecutor = new ThreadPoolExecutor(loadThreads, loadThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(loadQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-cache-load-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, loadExecutor, "productCacheLoad");
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Optional<Product> product) -> product.map(ProductCacheService::estimateBytes).orElse(16))
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .executor(loadExecutor)
+                .buildAsync(productRepository::findById);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.weighted.size", cache.synchronous(),
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .tag("cache", CACHE_NAME)
+                .description("Estimated bytes held by the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Optional<Product> findById(Long id) {
+        try {
+            return cache.get(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdown();
+    }
+
+    public void evict(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Applies a committed change of {@code delta} units, written with
+     * {@code lastUpdated}, to the cached copy of a product, if there is one.
+     */
+    public void stockChanged(Long id, int delta, LocalDateTime lastUpdated) {
+        afterCommit(() -> {
+            cache.asMap().computeIfPresent(id, (key, cached) -> {
+                // A load still in flight may have read the row before the commit, so drop it
+                if (!cached.isDone() || cached.isCompletedExceptionally()) {
+                    return null;
+                }
+                return cached.join()
+                        .map(product -> CompletableFuture.completedFuture(
+                                Optional.of(withStockChange(product, delta, lastUpdated))))
+                        .orElse(cached);
+            });
+        });
+    }
+
+    public void stockChanged(Map<Long, Integer> deltas, LocalDateTime lastUpdated) {
+        deltas.forEach((id, delta) -> stockChanged(id, delta, lastUpdated));
+    }
+
+    private static Product withStockChange(Product product, int delta, LocalDateTime lastUpdated) {
+        return new Product(product.getId(), product.getSku(), product.getName(), product.getDescription(),
+                product.getUnitPrice(), product.getImageUrl(), product.isActive(), product.getUnitsInStock() + delta,
+                product.getDateCreated(), lastUpdated, product.getCategory());
+    }
+
+    private static int estimateBytes(Product product) {
+        int chars = length(product.getSku()) + length(product.getName())
+                + length(product.getDescription()) + length(product.getImageUrl());
+        if (product.getCategory() != null) {
+            chars += length(product.getCategory().getName()) + length(product.getCategory().getDescription());
+        }
+        return ENTRY_OVERHEAD_BYTES + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over product sku, name, category and description.
+ * Queries are tokenized the same way as documents; every query token must
+ * match a document term exactly or as a prefix, and hits are ranked by the
+ * weight of the fields they matched in. Matching is by token prefix, not by
+ * substring: "phone" finds "Phone Case" but not "iPhone". The index only
+ * holds ids, so the page of results is loaded fresh from the database by
+ * primary key.
+ *
+ * Each term's postings are parallel primitive arrays of product ids and
+ * weights kept sorted by id, so queries merge and intersect them without
+ * boxing. A query token's terms are merged in one pass into a single new
+ * list, the only allocation proportional to the hits; the other tokens are
+ * intersected into it in place. Only the hits up to the end of the
+ * requested page are ordered, with a heap of positions bounded by that
+ * count. The index is empty until the first
+ * rebuild finishes; callers check {@link #isReady()} rather than serve
+ * empty results.
+ *
+ * Every node holds its own index. Writes made on this node are indexed
+ * straight away; writes made elsewhere are picked up by polling for
+ * products whose lastUpdated moved and for renamed categories. Products
+ * deleted elsewhere are dropped when a search finds them missing.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float SKU_WEIGHT = 4f;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Rows written up to this long before the last refresh started are read again, so late commits are not missed
+    @Value("${search.index.refresh-overlap-ms:10000}")
+    private long refreshOverlapMs;
+
+    // term -> postings sorted by product id
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+
+    // product id -> terms, so a product can be removed without scanning the dictionary
+    private final Map<Long, String[]> documentTerms = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    // Start of the last rebuild or refresh; only touched by those, which never overlap
+    private LocalDateTime indexedUpTo;
+
+    private Map<Long, String> categoryNames = Collections.emptyMap();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        indexedUpTo = LocalDateTime.now();
+        categoryNames = loadCategoryNames();
+        int count = 0;
+        ProductCursor cursor = ProductCursor.start("id", false);
+        Slice<ProductDto> slice;
+        do {
+            slice = productRepository.findSliceAsDto(null, cursor, REBUILD_BATCH_SIZE);
+            for (ProductDto product : slice.getContent()) {
+                index(product);
+                cursor = cursor.after(product);
+                count++;
+            }
+        } while (slice.hasNext());
+        ready = true;
+        log.info("Indexed {} products for search in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reindexes the products written since the last refresh, on any node,
+     * and the products of categories renamed since then.
+     */
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:5000}",
+               initialDelayString = "${search.index.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = indexedUpTo.minus(refreshOverlapMs, ChronoUnit.MILLIS);
+        int updated = reindex(afterId -> productRepository.findUpdatedSinceAsDto(
+                since, afterId, PageRequest.of(0, REBUILD_BATCH_SIZE)));
+
+        Map<Long, String> names = loadCategoryNames();
+        int renamed = 0;
+        for (Map.Entry<Long, String> category : names.entrySet()) {
+            String previous = categoryNames.get(category.getKey());
+            if (previous != null && !previous.equals(category.getValue())) {
+                renamed += reindex(afterId -> productRepository.findByCategoryIdAsDto(
+                        category.getKey(), afterId, PageRequest.of(0, REBUILD_BATCH_SIZE)));
+            }
+        }
+        categoryNames = names;
+        indexedUpTo = started;
+        if (updated > 0 || renamed > 0) {
+            log.debug("Reindexed {} changed products and {} products of renamed categories", updated, renamed);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        Category category = product.getCategory();
+        String categoryName = category == null ? null : category.getName();
+        if (categoryName == null && category != null && category.getId() != null) {
+            categoryName = categoryRepository.findById(category.getId()).map(Category::getName).orElse(null);
+        }
+        index(product.getId(), product.getSku(), product.getName(), categoryName, product.getDescription());
+    }
+
+    public void index(ProductDto product) {
+        index(product.getId(), product.getSku(), product.getName(), product.getCategoryName(), product.getDescription());
+    }
+
+    private void index(Long id, String sku, String name, String categoryName, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, sku, SKU_WEIGHT);
+        addField(weights, name, NAME_WEIGHT);
+        addField(weights, categoryName, CATEGORY_WEIGHT);
+        addField(weights, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeTerms(id);
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new Postings(1)).put(id, weight));
+            documentTerms.put(id, weights.keySet().toArray(new String[0]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeTerms(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<ProductDto> search(String query, Pageable pageable) {
+        Postings hits = match(query);
+        int end = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), hits.size);
+        List<Long> ranked = top(hits, end);
+
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        List<Long> pageIds = ranked.subList(from, ranked.size());
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, hits.size);
+        }
+        return new PageImpl<>(load(pageIds), pageable, hits.size);
+    }
+
+    /**
+     * Keyset variant of {@link #search}: returns the matching products with
+     * an id greater than {@code afterId} (all of them when null) in id
+     * order, one slice at a time.
+     */
+    public Slice<ProductDto> searchAfter(String query, Long afterId, int size) {
+        Postings hits = match(query);
+        // Hits are sorted by id, so the slice is the run that follows the cursor
+        int from = afterId == null ? 0 : hits.indexAfter(afterId);
+        int to = (int) Math.min((long) from + size + 1, hits.size);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(hits.ids[i]);
+        }
+        boolean hasNext = ids.size() > size;
+        List<Long> sliceIds = hasNext ? ids.subList(0, size) : ids;
+        List<ProductDto> content = sliceIds.isEmpty() ? Collections.emptyList() : load(sliceIds);
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} hits, best first and by id
+     * among equal scores.
+     */
+    static List<Long> top(Postings hits, int limit) {
+        limit = Math.min(limit, hits.size);
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Binary heap of positions in hits whose root is the worst hit kept so far
+        int[] kept = new int[limit];
+        int size = 0;
+        for (int i = 0; i < hits.size; i++) {
+            if (size < limit) {
+                kept[size] = i;
+                siftUp(hits, kept, size++);
+            } else if (better(hits, i, kept[0])) {
+                kept[0] = i;
+                siftDown(hits, kept, size);
+            }
+        }
+        // Taking the worst off the root each time fills the result from the back
+        Long[] ranked = new Long[size];
+        while (size > 0) {
+            ranked[--size] = hits.ids[kept[0]];
+            kept[0] = kept[size];
+            siftDown(hits, kept, size);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    private static boolean better(Postings hits, int a, int b) {
+        int byScore = Float.compare(hits.weights[a], hits.weights[b]);
+        return byScore != 0 ? byScore > 0 : hits.ids[a] < hits.ids[b];
+    }
+
+    private static void siftUp(Postings hits, int[] heap, int i) {
+        int item = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(hits, heap[parent], item)) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = item;
+    }
+
+    private static void siftDown(Postings hits, int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int item = heap[0];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && better(hits, heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!better(hits, item, heap[child])) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+
+    // Loads the products by primary key, keeping the order of the ids; ids deleted on another node are dropped
+    private List<ProductDto> load(List<Long> ids) {
+        Map<Long, ProductDto> rows = productRepository.findAllAsDtoByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductDto product = rows.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                remove(id);
+            }
+        }
+        return products;
+    }
+
+    // Indexes batches of products until the source runs dry, passing it the last id read
+    private int reindex(Function<Long, List<ProductDto>> batches) {
+        int count = 0;
+        long afterId = 0;
+        List<ProductDto> batch;
+        do {
+            batch = batches.apply(afterId);
+            for (ProductDto product : batch) {
+                index(product);
+                afterId = product.getId();
+                count++;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return count;
+    }
+
+    private Map<Long, String> loadCategoryNames() {
+        Map<Long, String> names = new HashMap<>();
+        categoryRepository.findAll().forEach(c -> names.put(c.getId(), c.getName()));
+        return names;
+    }
+
+    /**
+     * Returns the hits matching every token of the query, sorted by id, with
+     * their summed scores as weights.
+     */
+    Postings match(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return Postings.EMPTY;
+        }
+
+        Postings hits = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Postings tokenHits = matchToken(token);
+                if (hits == null) {
+                    hits = tokenHits;
+                } else {
+                    hits.retainAll(tokenHits);
+                }
+                if (hits.size == 0) {
+                    return Postings.EMPTY;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    /**
+     * Union of the postings of every term starting with the token, as a new
+     * list; a product keeps its best weight, with the prefix factor applied
+     * to terms longer than the token as they are read.
+     */
+    private Postings matchToken(String token) {
+        Collection<Map.Entry<String, Postings>> terms =
+                postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet();
+        int count = terms.size();
+        if (count == 0) {
+            return Postings.EMPTY;
+        }
+        Postings[] lists = new Postings[count];
+        float[] factors = new float[count];
+        int total = 0;
+        int n = 0;
+        for (Map.Entry<String, Postings> entry : terms) {
+            lists[n] = entry.getValue();
+            factors[n] = entry.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            total += lists[n].size;
+            n++;
+        }
+        return Postings.union(lists, factors, total);
+    }
+
+    private void removeTerms(Long id) {
+        String[] terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings docs = postings.get(term);
+            if (docs != null && docs.remove(id) && docs.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                current.append(Character.toLowerCase(ch));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Product ids in ascending order with a weight each, in parallel arrays
+     * filled up to {@code size}. The rebuild indexes in id order, so puts
+     * almost always append.
+     */
+    static final class Postings {
+
+        static final Postings EMPTY = new Postings(0);
+
+        long[] ids;
+        float[] weights;
+        int size;
+
+        Postings(int capacity) {
+            ids = new long[capacity];
+            weights = new float[capacity];
+        }
+
+        void put(long id, float weight) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                weights[i] = weight;
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length) {
+                int capacity = Math.max(4, size + (size >> 1));
+                ids = Arrays.copyOf(ids, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            ids[i] = id;
+            weights[i] = weight;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+            // Give memory back once a list has shrunk well below its capacity
+            if (size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, Math.max(size, 1));
+                weights = Arrays.copyOf(weights, Math.max(size, 1));
+            }
+            return true;
+        }
+
+        // Position of the first id greater than the given one
+        int indexAfter(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+
+        /**
+         * Merges the lists in one pass, with a heap of the lists ordered by
+         * their next id, so a short prefix matching many terms costs
+         * O(hits * log terms). Weights are multiplied by the list's factor
+         * as they are read.
+         */
+        static Postings union(Postings[] lists, float[] factors, int total) {
+            Postings out = new Postings(total);
+            int[] positions = new int[lists.length];
+            int[] heap = new int[lists.length];
+            int size = 0;
+            for (int k = 0; k < lists.length; k++) {
+                if (lists[k].size > 0) {
+                    heap[size] = k;
+                    siftUp(lists, positions, heap, size++);
+                }
+            }
+            while (size > 0) {
+                int k = heap[0];
+                int p = positions[k]++;
+                long id = lists[k].ids[p];
+                float weight = lists[k].weights[p] * factors[k];
+                if (out.size > 0 && out.ids[out.size - 1] == id) {
+                    out.weights[out.size - 1] = Math.max(out.weights[out.size - 1], weight);
+                } else {
+                    out.append(id, weight);
+                }
+                if (positions[k] == lists[k].size) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(lists, positions, heap, size);
+            }
+            return out;
+        }
+
+        // Keeps the ids also in the other list, with the weights summed; compacts in place
+        void retainAll(Postings other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; i++) {
+                long id = ids[i];
+                while (j < other.size && other.ids[j] < id) {
+                    j++;
+                }
+                if (j < other.size && other.ids[j] == id) {
+                    ids[kept] = id;
+                    weights[kept] = weights[i] + other.weights[j];
+                    kept++;
+                    j++;
+                }
+            }
+            size = kept;
+        }
+
+        private static long head(Postings[] lists, int[] positions, int k) {
+            return lists[k].ids[positions[k]];
+        }
+
+        private static void siftUp(Postings[] lists, int[] positions, int[] heap, int i) {
+            int item = heap[i];
+            long id = head(lists, positions, item);
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (head(lists, positions, heap[parent]) <= id) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = item;
+        }
+
+        private static void siftDown(Postings[] lists, int[] positions, int[] heap, int size) {
+            if (size == 0) {
+                return;
+            }
+            int item = heap[0];
+            long id = head(lists, positions, item);
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && head(lists, positions, heap[child + 1]) < head(lists, positions, heap[child])) {
+                    child++;
+                }
+                if (id <= head(lists, positions, heap[child])) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+
+        private void append(long id, float weight) {
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
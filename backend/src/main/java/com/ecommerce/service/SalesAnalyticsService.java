@@ -0,0 +1,211 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CategoryDto;
+import com.ecommerce.dto.CategoryRevenueDto;
+import com.ecommerce.dto.HourlyOrdersDto;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.dto.ProductSalesDto;
+import com.ecommerce.entity.HourlyOrderStats;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.ProductSalesStats;
+import com.ecommerce.repository.CategorySalesStatsRepository;
+import com.ecommerce.repository.HourlyOrderStatsRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductSalesStatsRepository;
+import com.ecommerce.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sales reporting served from rollup tables: totals per product, per
+ * category and per hour. The rollups are updated from the order event
+ * outbox, one set of JDBC batch upserts per dispatched batch, so reports
+ * read a handful of pre-aggregated rows however long the order history is.
+ * Like the order stats, an order counts from the moment it is placed until
+ * it is cancelled. Category totals use the category recorded on each order
+ * item when it was placed, so a cancellation is reversed against the same
+ * category it was counted in even if the product has moved since. Orders
+ * placed before the rollups existed were folded in by the V16 migration.
+ */
+@Service
+public class SalesAnalyticsService implements OrderEventConsumer {
+
+    private static final String UPSERT_PRODUCT_SQL =
+            "INSERT INTO product_sales_stats (product_id, units_sold, order_count, revenue_minor, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), " +
+            "order_count = order_count + VALUES(order_count), " +
+            "revenue_minor = revenue_minor + VALUES(revenue_minor), last_updated = VALUES(last_updated)";
+
+    private static final String UPSERT_CATEGORY_SQL =
+            "INSERT INTO category_sales_stats (category_id, units_sold, revenue_minor, last_updated) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), " +
+            "revenue_minor = revenue_minor + VALUES(revenue_minor), last_updated = VALUES(last_updated)";
+
+    private static final String UPSERT_HOUR_SQL =
+            "INSERT INTO hourly_order_stats (stat_hour, order_count, item_quantity, revenue_minor, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "item_quantity = item_quantity + VALUES(item_quantity), " +
+            "revenue_minor = revenue_minor + VALUES(revenue_minor), last_updated = VALUES(last_updated)";
+
+    public enum Ranking {
+        REVENUE("revenueMinor"), UNITS("unitsSold");
+
+        private final String property;
+
+        Ranking(String property) {
+            this.property = property;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductSalesStatsRepository productSalesStatsRepository;
+
+    @Autowired
+    private CategorySalesStatsRepository categorySalesStatsRepository;
+
+    @Autowired
+    private HourlyOrderStatsRepository hourlyOrderStatsRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryCacheService categoryCacheService;
+
+    @Override
+    public void onTransitions(List<OrderTransition> transitions) {
+        Deltas deltas = new Deltas();
+        for (OrderTransition transition : transitions) {
+            int sign = transition.getCountDelta();
+            if (sign == 0) {
+                continue;
+            }
+            Order order = transition.getOrder();
+            Totals hour = deltas.hour(order.getDateCreated());
+            hour.orders += sign;
+            for (OrderItem item : order.getOrderItems()) {
+                long units = sign * (long) item.getQuantity();
+                long revenueMinor = sign * item.getTotalPriceMinor();
+                deltas.add(item.getProduct().getId(), item.getCategoryId(), sign, units, revenueMinor);
+                hour.units += units;
+                hour.revenueMinor += revenueMinor;
+            }
+        }
+        apply(deltas);
+    }
+
+    public List<ProductSalesDto> findTopProducts(Ranking ranking, int limit) {
+        Sort sort = Sort.by(Sort.Direction.DESC, ranking.property).and(Sort.by("productId"));
+        List<ProductSalesStats> rows = productSalesStatsRepository.findBy(PageRequest.of(0, limit, sort));
+        Map<Long, ProductDto> products = productRepository.findAllAsDtoByIdIn(
+                        rows.stream().map(ProductSalesStats::getProductId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        return rows.stream()
+                .map(row -> {
+                    ProductDto product = products.get(row.getProductId());
+                    return new ProductSalesDto(row.getProductId(), product == null ? null : product.getSku(),
+                            product == null ? null : product.getName(), row.getUnitsSold(), row.getOrderCount(),
+                            Money.fromMinor(row.getRevenueMinor()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    public List<CategoryRevenueDto> findRevenueByCategory() {
+        CategoryCacheService.Snapshot categories = categoryCacheService.getSnapshot();
+        return categorySalesStatsRepository.findAllByOrderByRevenueMinorDesc().stream()
+                .map(row -> {
+                    CategoryDto category = categories.get(row.getCategoryId());
+                    return new CategoryRevenueDto(row.getCategoryId(), category == null ? null : category.getName(),
+                            row.getUnitsSold(), Money.fromMinor(row.getRevenueMinor()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns one entry per hour for the last {@code hours} hours including
+     * the current one, oldest first; hours without orders are zero.
+     */
+    public List<HourlyOrdersDto> findOrdersPerHour(int hours) {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1L);
+        Map<LocalDateTime, HourlyOrderStats> rows = hourlyOrderStatsRepository
+                .findByStatHourGreaterThanEqualOrderByStatHourAsc(from).stream()
+                .collect(Collectors.toMap(HourlyOrderStats::getStatHour, Function.identity()));
+
+        List<HourlyOrdersDto> result = new ArrayList<>(hours);
+        for (int i = 0; i < hours; i++) {
+            LocalDateTime hour = from.plusHours(i);
+            HourlyOrderStats row = rows.get(hour);
+            result.add(row == null
+                    ? new HourlyOrdersDto(hour, 0, 0, Money.fromMinor(0))
+                    : new HourlyOrdersDto(hour, row.getOrderCount(), row.getItemQuantity(), Money.fromMinor(row.getRevenueMinor())));
+        }
+        return result;
+    }
+
+    // Keys are sorted so concurrent dispatchers lock rollup rows in the same order
+    private void apply(Deltas deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> products = new ArrayList<>(deltas.products.size());
+        deltas.products.forEach((id, t) -> products.add(new Object[] {id, t.units, t.orders, t.revenueMinor, now}));
+        List<Object[]> categories = new ArrayList<>(deltas.categories.size());
+        deltas.categories.forEach((id, t) -> categories.add(new Object[] {id, t.units, t.revenueMinor, now}));
+        List<Object[]> hours = new ArrayList<>(deltas.hours.size());
+        deltas.hours.forEach((hour, t) -> hours.add(new Object[] {Timestamp.valueOf(hour), t.orders, t.units, t.revenueMinor, now}));
+
+        if (!products.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_PRODUCT_SQL, products);
+        }
+        if (!categories.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CATEGORY_SQL, categories);
+        }
+        if (!hours.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_HOUR_SQL, hours);
+        }
+    }
+
+    private static final class Totals {
+        long orders;
+        long units;
+        long revenueMinor;
+    }
+
+    private static final class Deltas {
+        final Map<Long, Totals> products = new TreeMap<>();
+        final Map<Long, Totals> categories = new TreeMap<>();
+        final Map<LocalDateTime, Totals> hours = new TreeMap<>();
+
+        Totals hour(LocalDateTime placed) {
+            return hours.computeIfAbsent(placed.truncatedTo(ChronoUnit.HOURS), h -> new Totals());
+        }
+
+        void add(Long productId, Long categoryId, int orders, long units, long revenueMinor) {
+            Totals product = products.computeIfAbsent(productId, id -> new Totals());
+            product.orders += orders;
+            product.units += units;
+            product.revenueMinor += revenueMinor;
+            Totals category = categories.computeIfAbsent(categoryId, id -> new Totals());
+            category.units += units;
+            category.revenueMinor += revenueMinor;
+        }
+    }
+}
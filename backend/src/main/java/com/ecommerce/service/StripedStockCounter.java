@@ -0,0 +1,81 @@
+package com.ecommerce.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stock budget for one hot product, split across stripes so parallel
+ * decrements rarely contend on the same CAS. Units only enter the budget
+ * after they were taken from the database, so selling from it can never
+ * oversell.
+ */
+class StripedStockCounter {
+
+    private final AtomicInteger[] stripes;
+
+    StripedStockCounter(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicInteger();
+        }
+    }
+
+    boolean tryDecrease(int quantity) {
+        AtomicInteger stripe = stripe();
+        if (tryTake(stripe, quantity)) {
+            return true;
+        }
+        synchronized (this) {
+            if (tryTake(stripe, quantity)) {
+                return true;
+            }
+            // Pool whatever the other stripes hold into this one
+            int pooled = drain();
+            if (pooled >= quantity) {
+                stripe.addAndGet(pooled - quantity);
+                return true;
+            }
+            stripe.addAndGet(pooled);
+            return false;
+        }
+    }
+
+    void increase(int quantity) {
+        stripe().addAndGet(quantity);
+    }
+
+    int available() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.get();
+        }
+        return total;
+    }
+
+    /**
+     * Removes and returns every unit currently held locally.
+     */
+    int drain() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.getAndSet(0);
+        }
+        return total;
+    }
+
+    private AtomicInteger stripe() {
+        return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    }
+
+    private static boolean tryTake(AtomicInteger stripe, int quantity) {
+        while (true) {
+            int current = stripe.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (stripe.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+}
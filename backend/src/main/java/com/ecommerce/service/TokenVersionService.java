@@ -0,0 +1,86 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.TokenState;
+import com.ecommerce.entity.User;
+import com.ecommerce.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a token's version is still current for its user. Tokens
+ * carry the version they were issued with; bumping the version in the
+ * users table revokes every token issued before it.
+ *
+ * The database is the source of truth: a user id without a users row is
+ * revoked, as is a disabled user. Each user's state is cached for
+ * {@code jwt.token-state-ttl-seconds}, so the request path reads the users
+ * table at most once per user per interval. Changes made on this node are
+ * applied to the cache as soon as they commit; other nodes see them once
+ * their entry expires.
+ */
+@Service
+public class TokenVersionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.token-state-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${jwt.token-state-cache-size:10000}")
+    private long maximumSize;
+
+    private LoadingCache<Long, Optional<TokenState>> states;
+
+    @PostConstruct
+    void init() {
+        states = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build(userRepository::findTokenStateById);
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Optional<TokenState> state = states.get(userId);
+        return state.isPresent() && state.get().isEnabled() && tokenVersion >= state.get().getTokenVersion();
+    }
+
+    /**
+     * Increments the user's token version. Call it inside the transaction
+     * that saves the user: the new version reaches this node's cache only
+     * once that transaction commits, so a failed save never leaves tokens
+     * revoked here that the database still accepts.
+     */
+    public void bump(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        Long userId = user.getId();
+        Optional<TokenState> state = Optional.of(new TokenState(user.getTokenVersion(), user.isEnabled()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.put(userId, state);
+                }
+            });
+        } else {
+            states.put(userId, state);
+        }
+    }
+
+    /**
+     * Rejects the user's tokens on this node straight away; other nodes
+     * follow once the users row is gone and their cached state expires.
+     */
+    public void revokeAll(Long userId) {
+        states.put(userId, Optional.empty());
+    }
+}
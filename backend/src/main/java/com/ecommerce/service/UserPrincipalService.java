@@ -0,0 +1,32 @@
+package com.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches the principals used by the JWT filter so authenticated requests
+ * don't hit the users table on every call. The login path keeps using
+ * {@link CustomUserDetailsService} directly, since the authentication
+ * manager erases credentials on the principal it returns.
+ */
+@Service
+public class UserPrincipalService {
+
+    public static final String CACHE_NAME = "userPrincipals";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Cacheable(cacheNames = CACHE_NAME, key = "#email")
+    public UserDetails loadPrincipal(String email) throws UsernameNotFoundException {
+        return userDetailsService.loadUserByUsername(email);
+    }
+
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#email")
+    public void evict(String email) {
+    }
+}
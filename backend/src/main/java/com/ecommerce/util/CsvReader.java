@@ -0,0 +1,96 @@
+package com.ecommerce.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma separated, fields optionally quoted with
+ * doubled quotes as escapes, quoted fields may span lines. Reads one record
+ * at a time so input of any size can be processed.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private long line = 1;
+    private long recordLine;
+    private int pushback = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the fields of the next record, or {@code null} at end of input.
+     */
+    public List<String> next() throws IOException {
+        int ch = read();
+        while (ch == '\n' || ch == '\r') {
+            ch = read();
+        }
+        if (ch == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (ch == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (ch == '"') {
+                    int nextCh = read();
+                    if (nextCh == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        ch = nextCh;
+                        continue;
+                    }
+                } else {
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n' || ch == '\r' || ch == -1) {
+                if (ch == '\r') {
+                    int nextCh = read();
+                    if (nextCh != '\n') {
+                        pushback = nextCh;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) ch);
+            }
+            ch = read();
+        }
+    }
+
+    // Line on which the record last returned by next() started
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        int ch;
+        if (pushback != -2) {
+            ch = pushback;
+            pushback = -2;
+        } else {
+            ch = reader.read();
+        }
+        if (ch == '\n') {
+            line++;
+        }
+        return ch;
+    }
+}
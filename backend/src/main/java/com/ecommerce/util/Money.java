@@ -0,0 +1,30 @@
+package com.ecommerce.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts between {@link BigDecimal} amounts as stored in price columns
+ * and whole minor units (cents) held in a {@code long}, so sums can be
+ * built without allocating.
+ */
+public final class Money {
+
+    // Matches the scale of every price column
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than two decimals
+     *         or does not fit in a long
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
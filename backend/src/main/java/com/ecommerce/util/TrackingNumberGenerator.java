@@ -0,0 +1,174 @@
+package com.ecommerce.util;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Snowflake-style order tracking numbers: 41 bits of milliseconds since
+ * 2024-01-01, 10 bits of node id and a 12-bit per-millisecond sequence,
+ * rendered as fixed-width base 36 so string order matches numeric order.
+ *
+ * Ids are strictly increasing per node without locking. When a millisecond's
+ * sequence is exhausted, or the clock steps backwards, the generator keeps
+ * counting forward from the last id instead of waiting.
+ *
+ * A node only issues ticks below a lease recorded in tracking_number_leases
+ * and starts from its lease after a restart. So a node that restarts while
+ * ahead of the wall clock, after a burst that borrowed future milliseconds
+ * or a clock step back, does not repeat a number it handed out before.
+ *
+ * The lease runs a minute ahead and is renewed on a schedule every half
+ * minute, off the request path: the caller of {@link #next()} usually holds
+ * a pooled connection inside its order transaction, and must not wait for a
+ * second one. Only when the lease is used up anyway, because renewals
+ * failed or a burst borrowed that far ahead, does a caller renew it itself.
+ */
+@Component
+public class TrackingNumberGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackingNumberGenerator.class);
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long LEASE_MILLIS = 60_000;
+    private static final long LEASE_TICKS = LEASE_MILLIS << SEQUENCE_BITS;
+
+    // Width of Long.MAX_VALUE in base 36
+    private static final int ENCODED_LENGTH = 13;
+    private static final String PREFIX = "ORD-";
+
+    private static final String SELECT_LEASE_SQL =
+            "SELECT reserved_tick FROM tracking_number_leases WHERE node_id = ?";
+    private static final String UPSERT_LEASE_SQL =
+            "INSERT INTO tracking_number_leases (node_id, reserved_tick) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE reserved_tick = GREATEST(reserved_tick, VALUES(reserved_tick))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.tracking.node-id:0}")
+    private long nodeId;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong lastTick = new AtomicLong();
+
+    // Ticks below this may be issued without extending the lease
+    private volatile long leasedUntil;
+
+    // A lock rather than a monitor, so a virtual thread waiting on the lease write does not pin its carrier
+    private final Lock leaseLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("order.tracking.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        long reserved = loadLease();
+        lastTick.set(reserved - 1);
+        extendLease(Math.max(reserved, currentTick()));
+    }
+
+    // Keeps the lease a minute ahead of the ids being issued
+    @Scheduled(fixedDelay = LEASE_MILLIS / 2, initialDelay = LEASE_MILLIS / 2)
+    public void renewLease() {
+        try {
+            extendLease(Math.max(lastTick.get() + 1, currentTick()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the tracking number lease of node {}", nodeId, e);
+        }
+    }
+
+    public String next() {
+        return PREFIX + encode(nextId());
+    }
+
+    long nextId() {
+        long tick;
+        while (true) {
+            long previous = lastTick.get();
+            long now = currentTick();
+            tick = now > previous ? now : previous + 1;
+            if (lastTick.compareAndSet(previous, tick)) {
+                break;
+            }
+        }
+        if (tick >= leasedUntil) {
+            awaitLease(tick);
+        }
+        long timestamp = tick >>> SEQUENCE_BITS;
+        long sequence = tick & SEQUENCE_MASK;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    // Blocks the callers that cross the lease until it is stored, so no tick
+    // beyond a stored lease is ever handed out
+    private void awaitLease(long tick) {
+        leaseLock.lock();
+        try {
+            if (tick >= leasedUntil) {
+                storeLease(tick + LEASE_TICKS);
+                leasedUntil = tick + LEASE_TICKS;
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void extendLease(long from) {
+        leaseLock.lock();
+        try {
+            long until = from + LEASE_TICKS;
+            if (until > leasedUntil) {
+                storeLease(until);
+                leasedUntil = until;
+            }
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    long loadLease() {
+        List<Long> reserved = jdbcTemplate.queryForList(SELECT_LEASE_SQL, Long.class, nodeId);
+        return reserved.isEmpty() ? 0 : reserved.get(0);
+    }
+
+    void storeLease(long until) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> jdbcTemplate.update(UPSERT_LEASE_SQL, nodeId, until));
+    }
+
+    private static long currentTick() {
+        return (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+    }
+
+    private static String encode(long id) {
+        String digits = Long.toString(id, 36).toUpperCase();
+        StringBuilder encoded = new StringBuilder(ENCODED_LENGTH);
+        for (int i = digits.length(); i < ENCODED_LENGTH; i++) {
+            encoded.append('0');
+        }
+        return encoded.append(digits).toString();
+    }
+}
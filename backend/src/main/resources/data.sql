@@ -27,8 +27,8 @@ INSERT INTO products (sku, name, description, unit_price, image_url, active, uni
 ('BOOK-005', 'Web Development', 'Full-stack web development', 64.99, 'https://via.placeholder.com/300x300?text=Web+Dev+Book', true, 40, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 3);
 
 -- Insert Admin User
-INSERT INTO users (email, password, first_name, last_name, role, enabled, date_created, last_updated) VALUES 
-('admin@ecommerce.com', '$2a$10$Kd4V2KGxl3.7EAMqpE8rJOQxWzjbPhpM7TvLdHVwK6s0nY1dDnR5G', 'Admin', 'User', 'ROLE_ADMIN', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('user@ecommerce.com', '$2a$10$Kd4V2KGxl3.7EAMqpE8rJOQxWzjbPhpM7TvLdHVwK6s0nY1dDnR5G', 'John', 'Doe', 'ROLE_USER', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO users (email, password, first_name, last_name, role, enabled, token_version, date_created, last_updated) VALUES 
+('admin@ecommerce.com', '$2a$10$Kd4V2KGxl3.7EAMqpE8rJOQxWzjbPhpM7TvLdHVwK6s0nY1dDnR5G', 'Admin', 'User', 'ROLE_ADMIN', true, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+('user@ecommerce.com', '$2a$10$Kd4V2KGxl3.7EAMqpE8rJOQxWzjbPhpM7TvLdHVwK6s0nY1dDnR5G', 'John', 'Doe', 'ROLE_USER', true, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- Default password for both users is: password
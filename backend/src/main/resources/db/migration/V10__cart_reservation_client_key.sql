@@ -0,0 +1,5 @@
+-- Who placed each hold, so the units one client may hold across carts can be capped.
+-- Holds placed before this column existed have none and expire on their own.
+ALTER TABLE cart_reservations ADD COLUMN client_key VARCHAR(100);
+
+CREATE INDEX idx_cart_reservations_client_key ON cart_reservations (client_key);
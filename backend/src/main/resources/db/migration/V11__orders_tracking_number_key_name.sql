@@ -0,0 +1,15 @@
+-- OrderController#placeOrder retries an order only when it collides on the
+-- tracking number, recognised by the unique key's name. Databases created
+-- by Hibernate before migrations existed carry a generated name for that
+-- key, so rename it to the one the baseline uses.
+SET @tracking_key = (
+    SELECT index_name FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'orders'
+      AND column_name = 'order_tracking_number' AND non_unique = 0
+    LIMIT 1);
+SET @rename_tracking_key = IF(@tracking_key IS NULL OR @tracking_key = 'uk_orders_tracking_number',
+    'DO 0',
+    CONCAT('ALTER TABLE orders RENAME INDEX `', @tracking_key, '` TO uk_orders_tracking_number'));
+PREPARE rename_tracking_key FROM @rename_tracking_key;
+EXECUTE rename_tracking_key;
+DEALLOCATE PREPARE rename_tracking_key;
@@ -0,0 +1,8 @@
+-- TrackingNumberGenerator: the highest tick each node may issue before it
+-- has to extend its lease. A restarted node starts above it, so it never
+-- repeats a tracking number it handed out before the restart.
+CREATE TABLE tracking_number_leases (
+    node_id INTEGER NOT NULL,
+    reserved_tick BIGINT NOT NULL,
+    PRIMARY KEY (node_id)
+) ENGINE=InnoDB;
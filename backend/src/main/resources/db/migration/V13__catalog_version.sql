@@ -0,0 +1,16 @@
+-- Product listings are validated by a version number bumped on every write
+-- that can add a product to a listing or take one out of it (create,
+-- update, delete, import), together with the newest last_updated of the
+-- listed rows. Stock changes only move last_updated, so they never touch
+-- this row.
+CREATE TABLE catalog_version (
+    id TINYINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
+
+-- ProductRepository.findActiveLastUpdatedByCategoryId: MAX(last_updated)
+-- of a category's active products is read from the end of the range.
+CREATE INDEX idx_products_category_active_updated ON products (category_id, active, last_updated);
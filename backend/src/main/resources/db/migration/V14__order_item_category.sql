@@ -0,0 +1,17 @@
+-- The category a product was in when it was ordered. Sales rollups reverse
+-- a cancelled order against this category, not the product's current one,
+-- so moving a product between categories cannot shift revenue. No foreign
+-- key: it is a historical record.
+ALTER TABLE order_items ADD COLUMN category_id BIGINT NULL;
+
+UPDATE order_items i JOIN products p ON p.id = i.product_id SET i.category_id = p.category_id;
+
+ALTER TABLE order_items MODIFY category_id BIGINT NOT NULL;
+
+-- One row per one-off startup task, e.g. a rollup backfill. The node whose
+-- insert succeeds runs the task; the others wait on the row and skip it.
+CREATE TABLE startup_tasks (
+    name VARCHAR(100) NOT NULL,
+    completed_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
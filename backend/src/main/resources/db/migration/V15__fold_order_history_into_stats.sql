@@ -0,0 +1,34 @@
+-- Folds every existing order into user_order_stats and daily_order_stats.
+-- Flyway runs this before the application serves requests or dispatches
+-- order events, so nothing else writes the tables meanwhile. The totals are
+-- rebuilt from scratch, which also repairs databases where the earlier
+-- startup backfill was skipped or raced with the dispatcher.
+--
+-- Each order is counted in the state the stats have already applied: its
+-- current status, or, while some of its events are still in the outbox,
+-- the status its oldest pending event moves it from. Dispatching those
+-- events afterwards applies the rest exactly once.
+CREATE TEMPORARY TABLE counted_orders AS
+SELECT o.id, o.user_id, o.date_created, o.total_quantity, o.total_price
+FROM orders o
+LEFT JOIN (SELECT order_id, MIN(id) AS first_event_id FROM order_events GROUP BY order_id) pending
+    ON pending.order_id = o.id
+LEFT JOIN order_events e ON e.id = pending.first_event_id
+WHERE CASE WHEN e.id IS NULL THEN o.status ELSE e.from_status END <> 'CANCELLED';
+
+DELETE FROM user_order_stats;
+DELETE FROM daily_order_stats;
+
+INSERT INTO user_order_stats (user_id, order_count, item_quantity, revenue_minor, last_updated)
+SELECT user_id, COUNT(*), SUM(total_quantity), SUM(total_price * 100), NOW(6)
+FROM counted_orders
+GROUP BY user_id;
+
+-- Shards must match order.stats.daily-shards, passed in as a Flyway placeholder
+INSERT INTO daily_order_stats (stat_date, shard, order_count, item_quantity, revenue_minor, last_updated)
+SELECT CAST(date_created AS DATE), MOD(user_id, ${dailyshards}), COUNT(*), SUM(total_quantity),
+       SUM(total_price * 100), NOW(6)
+FROM counted_orders
+GROUP BY CAST(date_created AS DATE), MOD(user_id, ${dailyshards});
+
+DROP TEMPORARY TABLE counted_orders;
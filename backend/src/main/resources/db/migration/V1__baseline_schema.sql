@@ -0,0 +1,78 @@
+-- Baseline: the schema Hibernate created with ddl-auto=update before
+-- migrations existed. Databases that already have these tables are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and pick up
+-- every later migration, so this file must not change.
+
+CREATE TABLE categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    sku VARCHAR(50) NOT NULL,
+    name VARCHAR(200) NOT NULL,
+    description VARCHAR(1000),
+    unit_price DECIMAL(10,2) NOT NULL,
+    image_url VARCHAR(500),
+    active BIT NOT NULL,
+    units_in_stock INTEGER NOT NULL,
+    date_created DATETIME(6) NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_products_sku UNIQUE (sku),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(100) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    role ENUM('ROLE_USER','ROLE_ADMIN') NOT NULL,
+    enabled BIT NOT NULL,
+    date_created DATETIME(6) NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_tracking_number VARCHAR(100) NOT NULL,
+    total_price DECIMAL(10,2) NOT NULL,
+    total_quantity INTEGER NOT NULL,
+    status ENUM('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED') NOT NULL,
+    date_created DATETIME(6) NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    user_id BIGINT NOT NULL,
+    shipping_address VARCHAR(200),
+    shipping_city VARCHAR(100),
+    shipping_state VARCHAR(50),
+    shipping_country VARCHAR(20),
+    shipping_zip_code VARCHAR(20),
+    billing_address VARCHAR(200),
+    billing_city VARCHAR(100),
+    billing_state VARCHAR(50),
+    billing_country VARCHAR(20),
+    billing_zip_code VARCHAR(20),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_orders_tracking_number UNIQUE (order_tracking_number),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    image_url VARCHAR(500),
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(10,2) NOT NULL,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE=InnoDB;
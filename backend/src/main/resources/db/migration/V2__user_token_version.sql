@@ -0,0 +1,2 @@
+-- Version stamped into every JWT; bumping it revokes the user's earlier tokens
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Stock held for a cart until it is checked out or the reservation expires
+CREATE TABLE cart_reservations (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cart_id VARCHAR(64) NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    date_created DATETIME(6) NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cart_reservations_cart_product UNIQUE (cart_id, product_id),
+    CONSTRAINT fk_cart_reservations_product FOREIGN KEY (product_id) REFERENCES products (id)
+) ENGINE=InnoDB;
+
+-- The expiry sweeper reads reservations in expires_at order
+CREATE INDEX idx_cart_reservations_expires_at ON cart_reservations (expires_at);
@@ -0,0 +1,16 @@
+-- Orders and order items take their ids from pooled sequences so Hibernate
+-- can batch the inserts. MySQL has no sequences, so Hibernate emulates them
+-- with these single-row tables. They start past the ids AUTO_INCREMENT has
+-- already handed out; the AUTO_INCREMENT attribute itself is left in place
+-- and is simply no longer used.
+CREATE TABLE orders_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO orders_seq SELECT COALESCE(MAX(id), 0) + 1 FROM orders;
+
+CREATE TABLE order_items_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO order_items_seq SELECT COALESCE(MAX(id), 0) + 1 FROM order_items;
@@ -0,0 +1,20 @@
+-- Per-user and per-day order totals, maintained as orders are placed and
+-- cancelled. Existing orders are folded in by OrderStatsService on startup.
+CREATE TABLE user_order_stats (
+    user_id BIGINT NOT NULL,
+    order_count BIGINT NOT NULL,
+    item_quantity BIGINT NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE daily_order_stats (
+    stat_date DATE NOT NULL,
+    shard INTEGER NOT NULL,
+    order_count BIGINT NOT NULL,
+    item_quantity BIGINT NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (stat_date, shard)
+) ENGINE=InnoDB;
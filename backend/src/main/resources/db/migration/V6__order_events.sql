@@ -0,0 +1,10 @@
+-- Outbox of order status transitions, drained by OrderEventDispatcher
+CREATE TABLE order_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    from_status ENUM('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED'),
+    to_status ENUM('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED') NOT NULL,
+    attempts INTEGER NOT NULL,
+    date_created DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
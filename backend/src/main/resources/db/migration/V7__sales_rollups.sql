@@ -0,0 +1,31 @@
+-- Sales rollups behind the analytics endpoints. Existing orders are folded
+-- in by SalesAnalyticsService on startup.
+CREATE TABLE product_sales_stats (
+    product_id BIGINT NOT NULL,
+    units_sold BIGINT NOT NULL,
+    order_count BIGINT NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (product_id)
+) ENGINE=InnoDB;
+
+-- Top-product rankings by revenue and by units sold
+CREATE INDEX idx_product_sales_stats_revenue ON product_sales_stats (revenue_minor);
+CREATE INDEX idx_product_sales_stats_units ON product_sales_stats (units_sold);
+
+CREATE TABLE category_sales_stats (
+    category_id BIGINT NOT NULL,
+    units_sold BIGINT NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (category_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE hourly_order_stats (
+    stat_hour DATETIME(6) NOT NULL,
+    order_count BIGINT NOT NULL,
+    item_quantity BIGINT NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    last_updated DATETIME(6) NOT NULL,
+    PRIMARY KEY (stat_hour)
+) ENGINE=InnoDB;
@@ -0,0 +1,23 @@
+-- Composite indexes matched to the repository queries. InnoDB appends the
+-- primary key to every secondary index, so an equality prefix followed by
+-- ORDER BY id is read in index order without a sort.
+
+-- ProductRepository.findActiveByCategoryId, findActiveByCategoryIdAsDto,
+-- findActiveCatalogVersionByCategoryId and the category cursor slices:
+-- category_id = ? AND active = true, ordered by id. Also serves the
+-- category foreign key, so MySQL drops the index it created for it.
+CREATE INDEX idx_products_category_active ON products (category_id, active);
+
+-- ProductRepository.findAvailableProducts and findByActiveTrue:
+-- active = true AND units_in_stock > 0 is a range on the second column.
+CREATE INDEX idx_products_active_stock ON products (active, units_in_stock);
+
+-- OrderRepository.findByUserId, findByUserIdOrderByDateCreatedDesc and the
+-- order history id page (user_id = ? ORDER BY date_created DESC, id DESC).
+-- With the implicit id suffix the history page is answered from the index
+-- alone. Also serves the user foreign key.
+CREATE INDEX idx_orders_user_date_created ON orders (user_id, date_created);
+
+-- OrderRepository.findByOrderTrackingNumber is already served by
+-- uk_orders_tracking_number, and findWithItemsByIdIn joins order_items
+-- through the foreign key index on order_id.
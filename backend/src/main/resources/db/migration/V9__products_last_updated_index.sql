@@ -0,0 +1,4 @@
+-- ProductRepository.findUpdatedSinceAsDto: every node's search index polls
+-- for products written since its last refresh, a short range at the end of
+-- last_updated.
+CREATE INDEX idx_products_last_updated ON products (last_updated);
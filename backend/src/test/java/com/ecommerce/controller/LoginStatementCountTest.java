@@ -0,0 +1,158 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.JwtResponse;
+import com.ecommerce.dto.LoginRequest;
+import com.ecommerce.entity.User;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CategoryCacheService;
+import com.ecommerce.service.CustomUserDetailsService;
+import com.ecommerce.service.PasswordHashingService;
+import com.ecommerce.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements a login prepares: the users row is read once and
+ * the JWT is built from it. Also times logins against the flow before it,
+ * which read the same row twice more after authenticating. BCrypt runs at
+ * its lowest strength here so the database work is not drowned out.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+@Import({AuthController.class, CustomUserDetailsService.class, PasswordHashingService.class, JwtUtil.class,
+        LoginStatementCountTest.HashingConfig.class})
+class LoginStatementCountTest {
+
+    private static final String EMAIL = "login@example.com";
+    private static final String PASSWORD = "secret-password";
+    private static final int LOGINS = 1000;
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @TestConfiguration
+    static class HashingConfig {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        // Completions run on the hashing thread that finished, so a login ends when its future does
+        @Bean
+        Executor applicationTaskExecutor() {
+            return Runnable::run;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @BeforeEach
+    void createUser() {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setFirstName("First");
+        user.setLastName("Last");
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void loginReadsTheUsersRowOnce() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ResponseEntity<?> response = login();
+
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        JwtResponse body = (JwtResponse) response.getBody();
+        assertThat(body.getEmail()).isEqualTo(EMAIL);
+        assertThat(body.getFirstName()).isEqualTo("First");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void loginsPerSecondBeforeAndAfter() throws Exception {
+        // Warm up both flows first, so the timed logins measure compiled code
+        for (int i = 0; i < LOGINS; i++) {
+            login();
+            loginAsBefore();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            loginAsBefore();
+        }
+        double before = LOGINS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            login();
+        }
+        double after = LOGINS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("Logins/s on one thread: %.0f reading the user three times, %.0f reading it once%n",
+                before, after);
+        assertThat(after).isGreaterThan(before);
+    }
+
+    // A login as a request makes it, with a fresh persistence context
+    private ResponseEntity<?> login() throws Exception {
+        entityManager.clear();
+        return authController.authenticateUser(new LoginRequest(EMAIL, PASSWORD)).get();
+    }
+
+    // The flow before the single lookup: after authenticating, the endpoint loaded the user details and the user again
+    private void loginAsBefore() throws Exception {
+        assertThat(login().getStatusCode().is2xxSuccessful()).isTrue();
+        userDetailsService.loadUserByUsername(EMAIL);
+        userRepository.findByEmail(EMAIL).orElseThrow();
+    }
+}
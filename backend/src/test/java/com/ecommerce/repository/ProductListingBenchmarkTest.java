@@ -0,0 +1,146 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Category;
+import com.ecommerce.service.CategoryCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pages through a seeded catalogue in id order once as managed Product
+ * entities, the way the listings used to read it, and once as ProductDto
+ * projections, measuring per page the time, the bytes allocated, the
+ * statements and the entities loaded. The persistence context is cleared
+ * after every page, as it would be at the end of a request.
+ *
+ * H2 runs in the test's thread, so the bytes include the database's own
+ * work; for the DTO listing that includes joining the rows skipped by the
+ * offset, which outweighs the managed entities it saves. Only the
+ * statement and entity counts are asserted, as they hold on any database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+class ProductListingBenchmarkTest {
+
+    private static final int CATEGORIES = 20;
+    private static final int PRODUCTS = 10_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @BeforeEach
+    void seed() {
+        List<Long> categoryIds = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = new Category();
+            category.setName("Category " + c);
+            categoryIds.add(entityManager.persist(category).getId());
+        }
+        entityManager.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int p = 0; p < PRODUCTS; p++) {
+            rows.add(new Object[] {"SKU-" + p, "Product " + p, "Description of product " + p, p % 100 + 0.99,
+                    "assets/images/products/" + p + ".png", p % 100 + 1, now, now, categoryIds.get(p % CATEGORIES)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (sku, name, description, unit_price, image_url, active, "
+                + "units_in_stock, date_created, last_updated, category_id) VALUES (?, ?, ?, ?, ?, TRUE, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void dtoListingLoadsNoEntitiesAndTakesFewerStatementsThanEntityListing() {
+        Listing entities = measure(productRepository::findAll);
+        Listing dtos = measure(productRepository::findAllAsDto);
+
+        System.out.printf("Entity listing: %s%nDTO listing:    %s%n", entities, dtos);
+        // A page of DTOs is the select and the count; a page of entities also loads and manages its categories
+        assertThat(dtos.statementsPerPage).isEqualTo(2);
+        assertThat(entities.statementsPerPage).isGreaterThan(dtos.statementsPerPage);
+        assertThat(dtos.entitiesPerPage).isZero();
+        assertThat(entities.entitiesPerPage).isGreaterThanOrEqualTo(PAGE_SIZE);
+    }
+
+    // Reads every page of the catalogue ROUNDS times; the first round warms up and is not counted
+    private Listing measure(Function<Pageable, Page<?>> listing) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        int pages = PRODUCTS / PAGE_SIZE;
+
+        long nanos = 0;
+        long bytes = 0;
+        long statements = 0;
+        long entities = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int page = 0; page < pages; page++) {
+                entityManager.clear();
+                statistics.clear();
+                long startBytes = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+
+                Page<?> result = listing.apply(PageRequest.of(page, PAGE_SIZE, Sort.by("id")));
+
+                long elapsed = System.nanoTime() - start;
+                long allocated = threads.getThreadAllocatedBytes(thread) - startBytes;
+                assertThat(result.getContent()).hasSize(PAGE_SIZE);
+                if (round > 0) {
+                    nanos += elapsed;
+                    bytes += allocated;
+                    statements += statistics.getPrepareStatementCount();
+                    entities += statistics.getEntityLoadCount();
+                }
+            }
+        }
+        int measured = pages * (ROUNDS - 1);
+        return new Listing(nanos / measured, bytes / measured, statements / measured, entities / measured);
+    }
+
+    private record Listing(long nanosPerPage, long bytesPerPage, long statementsPerPage, long entitiesPerPage) {
+
+        @Override
+        public String toString() {
+            return String.format("%d us, %d KB, %d statements and %d entities loaded per page of %d",
+                    nanosPerPage / 1000, bytesPerPage / 1024, statementsPerPage, entitiesPerPage, PAGE_SIZE);
+        }
+    }
+}
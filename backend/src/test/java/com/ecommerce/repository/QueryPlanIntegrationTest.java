@@ -0,0 +1,159 @@
+package com.ecommerce.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the application against a MySQL schema built by the Flyway
+ * migrations, so Hibernate's schema validation runs too, then checks the
+ * EXPLAIN plan of the SQL behind each hot repository query. A plan that
+ * falls back to a full scan or a filesort fails the test.
+ *
+ * The tables are seeded so the filtered rows are a small share of each
+ * table; on near-empty tables MySQL rightly prefers a scan whatever indexes
+ * exist. Needs Docker and is skipped without it.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanIntegrationTest {
+
+    private static final int CATEGORIES = 20;
+    private static final int PRODUCTS = 4000;
+    private static final int USERS = 200;
+    private static final int ORDERS = 4000;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        for (int c = 1; c <= CATEGORIES; c++) {
+            jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, ?)", c, "Category " + c);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO products (sku, name, unit_price, active, units_in_stock, date_created, last_updated, category_id) " +
+                "VALUES (?, ?, 9.99, ?, ?, NOW(6), NOW(6), ?)",
+                range(PRODUCTS), PRODUCTS, (ps, i) -> {
+                    ps.setString(1, "SKU-" + i);
+                    ps.setString(2, "Product " + i);
+                    ps.setBoolean(3, i % 10 != 0);
+                    // Most of the catalog is sold out, so the in-stock range is selective
+                    ps.setInt(4, i % 20 == 0 ? 5 : 0);
+                    ps.setInt(5, i % CATEGORIES + 1);
+                });
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (id, email, password, first_name, last_name, role, enabled, token_version, " +
+                "date_created, last_updated) VALUES (?, ?, 'x', 'First', 'Last', 'ROLE_USER', true, 0, NOW(6), NOW(6))",
+                range(USERS), USERS, (ps, i) -> {
+                    ps.setInt(1, i + 1);
+                    ps.setString(2, "user" + i + "@example.com");
+                });
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (id, order_tracking_number, total_price, total_quantity, status, " +
+                "date_created, last_updated, user_id) VALUES (?, ?, 10.00, 1, 'PENDING', " +
+                "NOW(6) - INTERVAL ? MINUTE, NOW(6), ?)",
+                range(ORDERS), ORDERS, (ps, i) -> {
+                    ps.setInt(1, i + 1);
+                    ps.setString(2, "ORD-" + i);
+                    ps.setInt(3, i);
+                    ps.setInt(4, i % USERS + 1);
+                });
+        jdbcTemplate.execute("ANALYZE TABLE categories, products, users, orders");
+    }
+
+    // ProductRepository.findActiveByCategoryId and the category cursor slices
+    @Test
+    void activeProductsOfCategorySeekTheCategoryIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM products WHERE category_id = 3 AND active = true ORDER BY id LIMIT 20");
+        assertUsesIndex(plan, "idx_products_category_active");
+        assertThat(extra(plan)).doesNotContain("Using filesort");
+    }
+
+    // ProductRepository.findAvailableProducts
+    @Test
+    void availableProductsRangeScanTheStockIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM products WHERE active = true AND units_in_stock > 0");
+        assertUsesIndex(plan, "idx_products_active_stock");
+    }
+
+    // ProductRepository.findLastUpdated and findActiveLastUpdatedByCategoryId: listing validators
+    @Test
+    void listingValidatorsReadOneIndexEntry() {
+        assertThat(extra(explain("SELECT MAX(last_updated) FROM products")))
+                .contains("Select tables optimized away");
+        assertThat(extra(explain("SELECT MAX(last_updated) FROM products WHERE category_id = 3 AND active = true")))
+                .contains("Select tables optimized away");
+    }
+
+    // OrderRepository.findByUserIdOrderByDateCreatedDesc
+    @Test
+    void ordersOfUserAreReadInIndexOrder() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM orders WHERE user_id = 7 ORDER BY date_created DESC");
+        assertUsesIndex(plan, "idx_orders_user_date_created");
+        assertThat(extra(plan)).doesNotContain("Using filesort");
+    }
+
+    // OrderRepository.findIdsByUserEmail: the history page is answered from the index alone
+    @Test
+    void orderHistoryIdPageIsCoveredByTheIndex() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT o.id FROM orders o JOIN users u ON u.id = o.user_id " +
+                "WHERE u.email = 'user7@example.com' ORDER BY o.date_created DESC, o.id DESC LIMIT 20");
+        Map<String, Object> orders = plan.stream()
+                .filter(row -> "o".equals(row.get("table")))
+                .findFirst()
+                .orElseThrow();
+        assertUsesIndex(orders, "idx_orders_user_date_created");
+        assertThat(extra(orders)).contains("Using index").doesNotContain("Using filesort");
+    }
+
+    // OrderRepository.findByOrderTrackingNumber
+    @Test
+    void trackingNumberLookupUsesTheUniqueKey() {
+        Map<String, Object> plan = explain("SELECT * FROM orders WHERE order_tracking_number = 'ORD-42'");
+        assertUsesIndex(plan, "uk_orders_tracking_number");
+        assertThat(plan.get("type")).isEqualTo("const");
+    }
+
+    private Map<String, Object> explain(String sql) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+        assertThat(plan).hasSize(1);
+        return plan.get(0);
+    }
+
+    private static void assertUsesIndex(Map<String, Object> plan, String index) {
+        assertThat(plan.get("type")).as("access type of %s", plan).isNotEqualTo("ALL");
+        assertThat(plan.get("key")).as("index chosen for %s", plan).isEqualTo(index);
+    }
+
+    private static String extra(Map<String, Object> plan) {
+        Object extra = plan.get("Extra");
+        return extra == null ? "" : extra.toString();
+    }
+
+    private static List<Integer> range(int count) {
+        return IntStream.range(0, count).boxed().toList();
+    }
+}
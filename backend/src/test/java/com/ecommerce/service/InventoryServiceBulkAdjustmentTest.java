@@ -0,0 +1,182 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.StockAdjustment;
+import com.ecommerce.dto.StockAdjustmentResult;
+import com.ecommerce.entity.Category;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.InventoryService.StockResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs warehouse syncs through InventoryService#adjustAll against H2 and
+ * checks the status of every adjustment, the stored stock and the cache
+ * updates, then times a large sync against the same adjustments made one
+ * ProductRepository update and transaction at a time. Batches commit on
+ * their own, so the test runs outside a test transaction and every test
+ * uses skus of its own.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(InventoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceBulkAdjustmentTest {
+
+    private static final int SYNC_SIZE = 5000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private ProductCacheService productCacheService;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @Test
+    void reportsAStatusPerAdjustmentInRequestOrder() {
+        Long byId = createProduct("MIXED-ID", 10);
+        Long bySku = createProduct("MIXED-SKU", 5);
+        Long scarce = createProduct("MIXED-SHORT", 2);
+
+        List<StockAdjustmentResult> results = inventoryService.adjustAll(List.of(
+                new StockAdjustment(byId, null, 5),
+                new StockAdjustment(null, "MIXED-SKU", -5),
+                new StockAdjustment(scarce, null, -3),
+                new StockAdjustment(null, "MIXED-MISSING", 1),
+                new StockAdjustment(Long.MAX_VALUE, null, 1)));
+
+        assertThat(results).extracting(StockAdjustmentResult::getStatus).containsExactly(
+                StockResult.UPDATED, StockResult.UPDATED, StockResult.INSUFFICIENT,
+                StockResult.NOT_FOUND, StockResult.NOT_FOUND);
+        // Skus are resolved to ids in the results; an unknown sku has none
+        assertThat(results).extracting(StockAdjustmentResult::getProductId)
+                .containsExactly(byId, bySku, scarce, null, Long.MAX_VALUE);
+
+        // Taking a product to exactly zero is allowed; below zero is skipped, not clamped
+        assertThat(stockOf(byId)).isEqualTo(15);
+        assertThat(stockOf(bySku)).isZero();
+        assertThat(stockOf(scarce)).isEqualTo(2);
+
+        verify(productCacheService).stockChanged(eq(byId), eq(5), any(LocalDateTime.class));
+        verify(productCacheService).stockChanged(eq(bySku), eq(-5), any(LocalDateTime.class));
+        verify(productCacheService, never()).stockChanged(eq(scarce), anyInt(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void appliesEveryBatchWhenTheSyncSpansSeveral() {
+        List<Long> ids = new ArrayList<>();
+        List<StockAdjustment> adjustments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(createProduct("SPAN-" + i, 1));
+            // Every third adjustment asks for more than the product holds
+            adjustments.add(i % 3 == 0 ? new StockAdjustment(null, "SPAN-" + i, -2) : new StockAdjustment(ids.get(i), null, 4));
+        }
+        int batchSize = (int) ReflectionTestUtils.getField(inventoryService, "bulkBatchSize");
+        ReflectionTestUtils.setField(inventoryService, "bulkBatchSize", 3);
+        try {
+            List<StockAdjustmentResult> results = inventoryService.adjustAll(adjustments);
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(results.get(i).getStatus()).isEqualTo(i % 3 == 0 ? StockResult.INSUFFICIENT : StockResult.UPDATED);
+                assertThat(stockOf(ids.get(i))).isEqualTo(i % 3 == 0 ? 1 : 5);
+            }
+        } finally {
+            ReflectionTestUtils.setField(inventoryService, "bulkBatchSize", batchSize);
+        }
+    }
+
+    @Test
+    void largeSyncIsFasterThanOneRepositoryUpdatePerProduct() {
+        List<Long> ids = createProducts("SYNC-", SYNC_SIZE, 100);
+        List<StockAdjustment> adjustments = new ArrayList<>(SYNC_SIZE);
+        for (int i = 0; i < SYNC_SIZE; i++) {
+            // Half by sku, half by id, so the sku lookup is part of the timing
+            adjustments.add(i % 2 == 0 ? new StockAdjustment(null, "SYNC-" + i, -1) : new StockAdjustment(ids.get(i), null, -1));
+        }
+
+        // Warm up both paths on the same products, then time each once
+        inventoryService.adjustAll(adjustments);
+        adjustOneByOne(ids);
+
+        long start = System.nanoTime();
+        List<StockAdjustmentResult> results = inventoryService.adjustAll(adjustments);
+        long bulkNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        adjustOneByOne(ids);
+        long oneByOneNanos = System.nanoTime() - start;
+
+        System.out.printf("%d adjustments: adjustAll %d ms, one repository update each %d ms%n",
+                SYNC_SIZE, bulkNanos / 1_000_000, oneByOneNanos / 1_000_000);
+        assertThat(results).allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(StockResult.UPDATED));
+        assertThat(stockOf(ids.get(0))).isEqualTo(100 - 4);
+        assertThat(bulkNanos).isLessThan(oneByOneNanos);
+    }
+
+    // The way a sync would run without adjustAll: a conditional update and a transaction per product
+    private void adjustOneByOne(List<Long> ids) {
+        for (Long id : ids) {
+            transactionTemplate.executeWithoutResult(status -> productRepository.decreaseStock(id, 1, LocalDateTime.now()));
+        }
+    }
+
+    private Long createProduct(String sku, int stock) {
+        return createProducts(sku, 1, stock).get(0);
+    }
+
+    // Inserts the products in one batch; with more than one, the sku gets the product's index appended
+    private List<Long> createProducts(String sku, int count, int stock) {
+        Category category = new Category();
+        category.setName("Bulk");
+        Long categoryId = categoryRepository.save(category).getId();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {count == 1 ? sku : sku + i, "Bulk product " + i, BigDecimal.ONE, stock, now, now, categoryId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (sku, name, unit_price, active, units_in_stock, date_created, "
+                + "last_updated, category_id) VALUES (?, ?, ?, TRUE, ?, ?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM products WHERE category_id = ? ORDER BY id", Long.class, categoryId);
+    }
+
+    private int stockOf(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getUnitsInStock();
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.InventoryService.StockResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thousands of decrements of the same product are released at once from a
+ * large pool, far more than it has stock. Exactly the stock on hand must be
+ * sold, and the database must never go below zero, neither at the end nor
+ * while the decrements run, whether the product is served by the
+ * conditional UPDATE alone or by the striped hot-product budget in front of
+ * it.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(InventoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 128;
+    private static final int DECREMENTS = 3000;
+    private static final int STOCK = 1000;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @MockBean
+    private ProductCacheService productCacheService;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @Test
+    void parallelDecrementsNeverOversell() throws Exception {
+        Long productId = createProduct("COLD-1", STOCK);
+
+        int sold = decrementConcurrently(productId, () -> { });
+
+        assertThat(sold).isEqualTo(STOCK);
+        assertThat(stockOf(productId)).isZero();
+    }
+
+    @Test
+    void parallelDecrementsNeverOversellThroughTheHotBudget() throws Exception {
+        Long productId = createProduct("HOT-1", STOCK);
+        ReflectionTestUtils.setField(inventoryService, "hotProductIds", Set.of(productId));
+        ReflectionTestUtils.setField(inventoryService, "chunkSize", 20);
+        try {
+            inventoryService.rebalance();
+            assertThat(stockOf(productId)).isEqualTo(STOCK - 20);
+
+            // The budget is topped up and trimmed concurrently, as the scheduled rebalance would
+            int sold = decrementConcurrently(productId, inventoryService::rebalance);
+            inventoryService.flush();
+
+            assertThat(sold).isEqualTo(STOCK);
+            assertThat(stockOf(productId)).isZero();
+        } finally {
+            ReflectionTestUtils.setField(inventoryService, "hotProductIds", Set.of());
+        }
+    }
+
+    // Returns how many single-unit decrements succeeded, sampling the stored stock while they run
+    private int decrementConcurrently(Long productId, Runnable alongside) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger lowestStock = new AtomicInteger(Integer.MAX_VALUE);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                alongside.run();
+                lowestStock.accumulateAndGet(stockOf(productId), Math::min);
+            }
+        });
+        try {
+            List<Future<StockResult>> results = new ArrayList<>(DECREMENTS);
+            for (int i = 0; i < DECREMENTS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return inventoryService.decrease(productId, 1);
+                }));
+            }
+            sampler.start();
+            start.countDown();
+            int sold = 0;
+            for (Future<StockResult> result : results) {
+                StockResult status = result.get(120, TimeUnit.SECONDS);
+                assertThat(status).isNotEqualTo(StockResult.NOT_FOUND);
+                if (status == StockResult.UPDATED) {
+                    sold++;
+                }
+            }
+            running.set(false);
+            sampler.join();
+            assertThat(lowestStock.get()).as("lowest stock seen while decrementing").isGreaterThanOrEqualTo(0);
+            return sold;
+        } finally {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    private Long createProduct(String sku, int stock) {
+        Category category = new Category();
+        category.setName("Stress");
+        category = categoryRepository.save(category);
+
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName("Stress product " + sku);
+        product.setUnitPrice(new BigDecimal("1.00"));
+        product.setUnitsInStock(stock);
+        product.setCategory(category);
+        return productRepository.save(product).getId();
+    }
+
+    private int stockOf(Long productId) {
+        return productRepository.findById(productId).orElseThrow().getUnitsInStock();
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.util.TrackingNumberGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements OrderService#findHistory prepares. The count must
+ * not grow with the number of orders, items or products in the history.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+@Import(OrderService.class)
+class OrderHistoryStatementCountTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private CartReservationService cartReservationService;
+
+    @MockBean
+    private TrackingNumberGenerator trackingNumberGenerator;
+
+    @MockBean
+    private ProductCacheService productCacheService;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    @Test
+    void historyTakesTheSameStatementsForOneOrFiftyOrders() {
+        Category category = new Category();
+        category.setName("History");
+        entityManager.persist(category);
+        createHistory("one@example.com", 1, category);
+        createHistory("fifty@example.com", 50, category);
+        entityManager.flush();
+
+        // The first page holds the whole history, so its count is known without a count query
+        assertThat(statementsFor("one@example.com")).isEqualTo(2);
+        assertThat(statementsFor("fifty@example.com")).isEqualTo(3);
+    }
+
+    private long statementsFor(String email) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderDto> history = orderService.findHistory(email, 0, PAGE_SIZE);
+
+        assertThat(history.getContent()).allSatisfy(order -> assertThat(order.getItems()).hasSize(2));
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Every order has two items of products of its own, so lazy loading would show as extra statements
+    private void createHistory(String email, int orders, Category category) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        entityManager.persist(user);
+
+        for (int o = 0; o < orders; o++) {
+            Order order = new Order();
+            order.setOrderTrackingNumber("ORD-" + email + "-" + o);
+            order.setUser(user);
+            for (int i = 0; i < 2; i++) {
+                Product product = new Product();
+                product.setSku(email + "-" + o + "-" + i);
+                product.setName("Product " + o + "-" + i);
+                product.setUnitPrice(new BigDecimal("1.00"));
+                product.setCategory(category);
+                entityManager.persist(product);
+
+                OrderItem item = new OrderItem();
+                item.setQuantity(1);
+                item.setUnitPrice(new BigDecimal("1.00"));
+                item.setProduct(product);
+                item.setCategoryId(category.getId());
+                item.setOrder(order);
+                order.getOrderItems().add(item);
+            }
+            entityManager.persist(order);
+        }
+    }
+}
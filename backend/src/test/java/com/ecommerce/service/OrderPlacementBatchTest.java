@@ -0,0 +1,172 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderRequest;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.service.InventoryService.StockResult;
+import com.ecommerce.util.TrackingNumberGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Places orders through OrderService#placeOrder and counts the statements
+ * Hibernate prepares. The order's items go out as one JDBC batch, so the
+ * count must not grow with the number of items. Stock is taken through a
+ * mocked InventoryService, so only the order's own writes are measured.
+ *
+ * The throughput check places orders one after another on one thread,
+ * with H2 running in that same thread. It guards against regressions;
+ * the 1,000 orders a second the service aims for is spread over
+ * concurrent requests on a multi-core host and is not measured here.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+@Import(OrderService.class)
+class OrderPlacementBatchTest {
+
+    private static final String EMAIL = "batch@example.com";
+    private static final int PRODUCTS = 20;
+    private static final int THROUGHPUT_ORDERS = 2000;
+    private static final int THROUGHPUT_ITEMS = 5;
+    // About 450 a second on a single core; well below that means a statement per item or per order has crept in
+    private static final double MIN_ORDERS_PER_SECOND = 250;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private InventoryService inventoryService;
+
+    @MockBean
+    private CartReservationService cartReservationService;
+
+    @MockBean
+    private TrackingNumberGenerator trackingNumberGenerator;
+
+    @MockBean
+    private ProductCacheService productCacheService;
+
+    @MockBean
+    private CategoryCacheService categoryCacheService;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        AtomicLong trackingNumbers = new AtomicLong();
+        when(trackingNumberGenerator.next()).thenAnswer(invocation -> "ORD-" + trackingNumbers.incrementAndGet());
+        when(inventoryService.decrease(anyLong(), anyInt())).thenReturn(StockResult.UPDATED);
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPassword("x");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        entityManager.persist(user);
+
+        Category category = new Category();
+        category.setName("Batch");
+        entityManager.persist(category);
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = new Product();
+            product.setSku("BATCH-" + p);
+            product.setName("Product " + p);
+            product.setUnitPrice(new BigDecimal("9.99"));
+            product.setUnitsInStock(1_000_000);
+            product.setCategory(category);
+            products.add(entityManager.persist(product));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void orderOfTwentyItemsTakesTheSameStatementsAsOrderOfOne() {
+        // The pooled optimizer reads each sequence twice on first use; after that neither measured order needs new ids
+        place(1);
+        place(1);
+
+        Writes one = writesFor(1);
+        Writes twenty = writesFor(PRODUCTS);
+
+        assertThat(twenty.rows).isEqualTo(one.rows + PRODUCTS - 1);
+        // The user, the products, then one insert each for the order, its items and its outbox event
+        assertThat(one.statements).isEqualTo(5);
+        assertThat(twenty.statements).isEqualTo(one.statements);
+    }
+
+    @Test
+    void placesOrdersWithoutAStatementPerItem() {
+        // Warm up first, so the timed orders measure compiled code
+        for (int i = 0; i < THROUGHPUT_ORDERS * 2; i++) {
+            place(THROUGHPUT_ITEMS);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_ORDERS; i++) {
+            place(THROUGHPUT_ITEMS);
+        }
+        double perSecond = THROUGHPUT_ORDERS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("Placed %d orders of %d items at %.0f orders/s%n", THROUGHPUT_ORDERS, THROUGHPUT_ITEMS, perSecond);
+        assertThat(perSecond).isGreaterThan(MIN_ORDERS_PER_SECOND);
+    }
+
+    private Writes writesFor(int items) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        place(items);
+        return new Writes(statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+    }
+
+    private record Writes(long statements, long rows) {
+    }
+
+    // Places an order of the first products, one of each, and flushes it out like a committing request would
+    private OrderDto place(int items) {
+        List<OrderItemRequest> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderItemRequest(products.get(i).getId(), 1, products.get(i).getUnitPrice()));
+        }
+        OrderRequest request = new OrderRequest();
+        request.setItems(lines);
+        request.setShippingAddress("1 Main Street");
+        request.setShippingCity("Springfield");
+
+        OrderDto order = orderService.placeOrder(EMAIL, request);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(order.getItems()).hasSize(items);
+        return order;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds an index of a million products and times queries against it,
+ * checking that a selective query answers in under a millisecond and
+ * allocates in proportion to its hits rather than to the catalogue. The
+ * index is filled straight from DTOs, so no database is needed.
+ */
+class ProductSearchIndexTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int RUNS = 200;
+
+    private static final String[] ADJECTIVES = {
+            "red", "blue", "green", "black", "white", "silver", "golden", "wooden", "steel", "leather",
+            "compact", "portable", "wireless", "ergonomic", "vintage", "modern", "classic", "deluxe", "mini", "smart",
+            "quiet", "rapid", "solar", "foldable", "heavy", "light", "soft", "rugged", "slim", "waterproof",
+            "digital", "analog", "organic", "premium", "basic", "ultra", "pro", "eco", "travel", "kids",
+            "outdoor", "indoor", "magnetic", "electric", "manual", "bamboo", "ceramic", "glass", "cotton", "woolen"};
+
+    private static final String[] NOUNS = {
+            "chair", "table", "lamp", "desk", "sofa", "shelf", "clock", "mirror", "rug", "vase",
+            "phone", "charger", "cable", "speaker", "headset", "keyboard", "mouse", "monitor", "camera", "tripod",
+            "kettle", "toaster", "blender", "mixer", "pan", "pot", "knife", "spoon", "fork", "plate"};
+
+    private static final String[] CATEGORIES = {
+            "Furniture", "Lighting", "Electronics", "Kitchen", "Garden", "Office", "Sports", "Toys", "Books", "Audio"};
+
+    private static ProductSearchIndex index;
+
+    @BeforeAll
+    static void buildIndex() {
+        index = new ProductSearchIndex();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            int n = (int) id;
+            String name = ADJECTIVES[n % ADJECTIVES.length] + " " + NOUNS[(n / ADJECTIVES.length) % NOUNS.length];
+            index.index(new ProductDto(id, "SKU-" + id, name, null, BigDecimal.ONE, null, true, 1,
+                    CATEGORIES[n % CATEGORIES.length], null));
+        }
+    }
+
+    @Test
+    void selectiveQueriesAnswerInUnderAMillisecondAtAMillionProducts() {
+        for (String query : new String[] {"red chair", "4711", "wireless cha"}) {
+            long[] nanos = new long[RUNS];
+            // Warm up first, so the timed runs measure compiled code
+            for (int i = 0; i < RUNS; i++) {
+                ProductSearchIndex.top(index.match(query), 20);
+            }
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                ProductSearchIndex.top(index.match(query), 20);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            long median = nanos[RUNS / 2];
+            System.out.printf("'%s': %d hits, median %d us, p99 %d us%n",
+                    query, index.match(query).size, median / 1000, nanos[RUNS * 99 / 100] / 1000);
+            assertThat(median).as("median latency of '%s' in ns", query).isLessThan(1_000_000L);
+        }
+    }
+
+    @Test
+    void queriesAllocateInProportionToTheirHitsNotToTheCatalogue() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // "4711" merges over a hundred prefix terms into 111 hits; "red chair" intersects 20,000 and 33,333 hits
+        for (String query : new String[] {"4711", "red chair"}) {
+            ProductSearchIndex.top(index.match(query), 20);
+            int postingsRead = postingsRead(query);
+            long before = threads.getThreadAllocatedBytes(thread);
+            ProductSearchIndex.top(index.match(query), 20);
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            System.out.printf("'%s': %d postings read, %d bytes allocated%n", query, postingsRead, allocated);
+            // An id and a weight per posting read, plus a fixed overhead for the term cursors and the page
+            assertThat(allocated).as("bytes allocated by '%s'", query).isLessThan(12L * postingsRead + 64 * 1024);
+        }
+    }
+
+    @Test
+    void ranksByScoreThenByIdLikeAFullSort() {
+        Random random = new Random(42);
+        ProductSearchIndex.Postings hits = new ProductSearchIndex.Postings(5000);
+        for (long id = 1; id <= 5000; id++) {
+            // Few distinct scores, so ties are common and the id order among them matters
+            hits.put(id, random.nextInt(8));
+        }
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < hits.size; i++) {
+            positions.add(i);
+        }
+        positions.sort(Comparator.<Integer>comparingDouble(i -> -hits.weights[i]).thenComparingLong(i -> hits.ids[i]));
+
+        for (int limit : new int[] {1, 20, 137, 5000, 6000}) {
+            List<Long> expected = positions.subList(0, Math.min(limit, hits.size)).stream()
+                    .map(i -> hits.ids[i])
+                    .toList();
+            assertThat(ProductSearchIndex.top(hits, limit)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void prefixMatchesScoreBelowExactMatchesAndEveryTokenMustMatch() {
+        List<Long> ranked = ProductSearchIndex.top(index.match("wireless chair"), 3);
+        assertThat(ranked).isNotEmpty();
+        for (Long id : ranked) {
+            int n = id.intValue();
+            assertThat(ADJECTIVES[n % ADJECTIVES.length]).isEqualTo("wireless");
+            assertThat(NOUNS[(n / ADJECTIVES.length) % NOUNS.length]).isEqualTo("chair");
+        }
+
+        // "4711" matches SKU-4711 exactly and SKU-47110 and up by prefix, so the exact one ranks first
+        assertThat(ProductSearchIndex.top(index.match("4711"), 1)).containsExactly(4711L);
+        assertThat(index.match("4711").size).isEqualTo(111);
+    }
+
+    // Entries in the postings of the terms the query's tokens match; terms here never share a product
+    private static int postingsRead(String query) {
+        int total = 0;
+        for (String token : ProductSearchIndex.tokenize(query)) {
+            total += index.match(token).size;
+        }
+        return total;
+    }
+}
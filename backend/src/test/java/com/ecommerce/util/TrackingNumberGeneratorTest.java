@@ -0,0 +1,147 @@
+package com.ecommerce.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Many threads draw ids from one generator at once, far faster than one id
+ * per millisecond, so the per-millisecond sequence overflows and the
+ * generator borrows future milliseconds. The lease table is replaced by an
+ * in-memory value, so no database is needed.
+ */
+class TrackingNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    void millionsOfConcurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        TrackingNumberGenerator generator = start(new AtomicLong());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            // Millions of ids: check with a sorted primitive array rather than a set of boxed longs
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            int filled = 0;
+            for (Future<long[]> result : results) {
+                long[] ids = result.get(120, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.length; i++) {
+                    if (ids[i] <= ids[i - 1]) {
+                        fail("ids of one thread went from %d to %d", ids[i - 1], ids[i]);
+                    }
+                }
+                System.arraycopy(ids, 0, all, filled, ids.length);
+                filled += ids.length;
+            }
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                if (all[i] == all[i - 1]) {
+                    fail("duplicate id %d", all[i]);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void restartedNodeStartsAboveEverythingItIssued() {
+        AtomicLong lease = new AtomicLong();
+        TrackingNumberGenerator before = start(lease);
+        // As after a clock step back: the node runs two minutes ahead of the wall clock
+        long epoch = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        AtomicLong lastTick = (AtomicLong) ReflectionTestUtils.getField(before, "lastTick");
+        lastTick.set((System.currentTimeMillis() - epoch + 120_000) << 12);
+        long highest = 0;
+        for (int i = 0; i < 10_000; i++) {
+            highest = Math.max(highest, before.nextId());
+        }
+
+        TrackingNumberGenerator after = start(lease);
+
+        assertThat(after.nextId()).isGreaterThan(highest);
+    }
+
+    @Test
+    void scheduledRenewalKeepsTheLeaseWriteOffTheRequestPath() {
+        AtomicLong lease = new AtomicLong();
+        AtomicInteger stores = new AtomicInteger();
+        TrackingNumberGenerator generator = new TrackingNumberGenerator() {
+            @Override
+            long loadLease() {
+                return lease.get();
+            }
+
+            @Override
+            void storeLease(long until) {
+                stores.incrementAndGet();
+                lease.accumulateAndGet(until, Math::max);
+            }
+        };
+        generator.init();
+        long afterStart = lease.get();
+
+        generator.renewLease();
+        assertThat(lease.get()).isGreaterThanOrEqualTo(afterStart);
+        int storesBefore = stores.get();
+
+        for (int i = 0; i < 10_000; i++) {
+            generator.nextId();
+        }
+        assertThat(stores).hasValue(storesBefore);
+    }
+
+    @Test
+    void trackingNumbersSortLikeTheirIds() {
+        TrackingNumberGenerator generator = start(new AtomicLong());
+        String first = generator.next();
+        String second = generator.next();
+
+        assertThat(first).startsWith("ORD-").hasSize(17);
+        assertThat(second).isGreaterThan(first);
+    }
+
+    private static TrackingNumberGenerator start(AtomicLong lease) {
+        TrackingNumberGenerator generator = new TrackingNumberGenerator() {
+            @Override
+            long loadLease() {
+                return lease.get();
+            }
+
+            @Override
+            void storeLease(long until) {
+                lease.accumulateAndGet(until, Math::max);
+            }
+        };
+        generator.init();
+        return generator;
+    }
+}
@@ -3,6 +3,7 @@ import { FormBuilder, FormGroup, Validators } from '@angular/forms';
 import { Router } from '@angular/router';
 import { CartService } from '../services/cart.service';
 import { AuthService } from '../services/auth.service';
+import { OrderService } from '../services/order.service';
 import { CommonModule } from '@angular/common';
 import { ReactiveFormsModule } from '@angular/forms';
 import { CartItem } from '../models/cart.model';
@@ -26,6 +27,7 @@ export class Checkout implements OnInit {
     private fb: FormBuilder,
     private cartService: CartService,
     private authService: AuthService,
+    private orderService: OrderService,
     private router: Router
   ) {
     this.initializeForm();
@@ -123,34 +125,34 @@ export class Checkout implements OnInit {
     if (this.checkoutForm.valid && this.cartItems.length > 0) {
       this.isProcessing = true;
       
-      const orderData = {
-        ...this.checkoutForm.value,
-        items: this.cartItems,
-        subtotal: this.subtotal,
-        shipping: this.shipping,
-        tax: this.tax,
-        total: this.total,
-        orderDate: new Date().toISOString()
+      const form = this.checkoutForm.value;
+      const orderRequest = {
+        cartId: this.cartService.getCartId(),
+        items: this.cartItems.map(item => ({
+          productId: item.product.id!,
+          quantity: item.quantity,
+          unitPrice: item.product.unitPrice
+        })),
+        shippingAddress: [form.address, form.address2].filter(Boolean).join(', '),
+        shippingCity: form.city,
+        shippingState: form.state,
+        shippingZipCode: form.zipCode
       };
 
-      // Simulate order processing
-      setTimeout(() => {
-        console.log('Order submitted:', orderData);
-        alert('Order placed successfully! You will receive a confirmation email shortly.');
-        
-        // Clear cart after successful order
-        this.cartService.clearCart().subscribe({
-          next: () => {
-            this.router.navigate(['/']);
-          },
-          error: (error) => {
-            console.error('Error clearing cart:', error);
-            this.router.navigate(['/']);
-          }
-        });
-        
-        this.isProcessing = false;
-      }, 2000);
+      this.orderService.placeOrder(orderRequest).subscribe({
+        next: (order) => {
+          alert(`Order ${order.orderTrackingNumber} placed successfully! You will receive a confirmation email shortly.`);
+          // The order consumed the cart's reservations, so only the local cart is cleared
+          this.cartService.resetCart();
+          this.isProcessing = false;
+          this.router.navigate(['/']);
+        },
+        error: (error) => {
+          console.error('Error placing order:', error);
+          alert(error.error?.error || 'Failed to place order. Please try again.');
+          this.isProcessing = false;
+        }
+      });
     } else {
       // Mark all fields as touched to show validation errors
       Object.keys(this.checkoutForm.controls).forEach(key => {
@@ -10,6 +10,8 @@ export interface Product {
   dateCreated?: Date;
   lastUpdated?: Date;
   category?: Category;
+  categoryId?: number;
+  categoryName?: string;
 }
 
 export interface Category {
@@ -1,10 +1,10 @@
 import { Injectable, Inject, PLATFORM_ID } from '@angular/core';
 import { isPlatformBrowser } from '@angular/common';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { BehaviorSubject, Observable, throwError } from 'rxjs';
 import { catchError, tap } from 'rxjs/operators';
 import { CartItem } from '../models/cart.model';
 import { Product } from '../models/product.model';
-import { ProductService } from './product.service';
 
 @Injectable({
   providedIn: 'root'
@@ -19,9 +19,11 @@ export class CartService {
   private totalQuantitySubject = new BehaviorSubject<number>(0);
   public totalQuantity$ = this.totalQuantitySubject.asObservable();
 
+  private apiUrl = 'http://localhost:8080/api';
+
   constructor(
     @Inject(PLATFORM_ID) private platformId: Object,
-    private productService: ProductService
+    private http: HttpClient
   ) {
     // Load cart from localStorage only in browser
     if (isPlatformBrowser(this.platformId)) {
@@ -50,8 +52,8 @@ export class CartService {
         return;
       }
 
-      // Update stock in database first
-      this.productService.decreaseProductStock(product.id!, quantity).subscribe({
+      // Hold the stock on the server first; the hold expires if the cart is abandoned
+      this.holdStock(product.id!, totalQuantityNeeded).subscribe({
         next: (response) => {
           // Update local cart after successful stock update
           if (existingItemIndex > -1) {
@@ -83,8 +85,8 @@ export class CartService {
         return;
       }
 
-      // Restore stock in database
-      this.productService.increaseProductStock(productId, itemToRemove.quantity).subscribe({
+      // Release the held stock
+      this.releaseStock(productId).subscribe({
         next: (response) => {
           // Remove item from cart after successful stock restore
           const updatedCartItems = cartItems.filter(item => item.product.id !== productId);
@@ -122,20 +124,9 @@ export class CartService {
         return;
       }
 
-      if (quantityDifference > 0) {
-        // Increasing quantity - need to decrease stock
-        this.productService.decreaseProductStock(productId, quantityDifference).subscribe({
-          next: (response) => {
-            cartItems[itemIndex].quantity = newQuantity;
-            this.updateCart(cartItems);
-            observer.next({ success: true, message: 'Quantity updated successfully!' });
-            observer.complete();
-          },
-          error: (error) => observer.error(error)
-        });
-      } else if (quantityDifference < 0) {
-        // Decreasing quantity - need to increase stock
-        this.productService.increaseProductStock(productId, Math.abs(quantityDifference)).subscribe({
+      if (quantityDifference !== 0) {
+        // Move the hold to the new quantity
+        this.holdStock(productId, newQuantity).subscribe({
           next: (response) => {
             cartItems[itemIndex].quantity = newQuantity;
             this.updateCart(cartItems);
@@ -162,21 +153,23 @@ export class CartService {
         return;
       }
 
-      // Restore stock for all items
-      const stockRestorePromises = cartItems.map(item => 
-        this.productService.increaseProductStock(item.product.id!, item.quantity).toPromise()
-      );
-
-      Promise.all(stockRestorePromises).then(() => {
-        this.updateCart([]);
-        observer.next({ success: true, message: 'Cart cleared successfully!' });
-        observer.complete();
-      }).catch(error => {
-        observer.error(error);
+      // Release every hold of this cart in one call
+      this.http.delete(`${this.apiUrl}/cart/${this.getCartId()}/reservations`).subscribe({
+        next: () => {
+          this.updateCart([]);
+          observer.next({ success: true, message: 'Cart cleared successfully!' });
+          observer.complete();
+        },
+        error: (error) => observer.error(error)
       });
     });
   }
 
+  // Empties the cart locally once its reservations have been turned into an order
+  resetCart(): void {
+    this.updateCart([]);
+  }
+
   getCartItems(): CartItem[] {
     return this.cartItemsSubject.value;
   }
@@ -189,6 +182,27 @@ export class CartService {
     return this.totalPriceSubject.value;
   }
 
+  getCartId(): string {
+    if (!isPlatformBrowser(this.platformId)) {
+      return '';
+    }
+    let cartId = localStorage.getItem('cartId');
+    if (!cartId) {
+      cartId = crypto.randomUUID();
+      localStorage.setItem('cartId', cartId);
+    }
+    return cartId;
+  }
+
+  private holdStock(productId: number, quantity: number): Observable<any> {
+    const params = new HttpParams().set('quantity', quantity.toString());
+    return this.http.put(`${this.apiUrl}/cart/${this.getCartId()}/reservations/${productId}`, null, { params });
+  }
+
+  private releaseStock(productId: number): Observable<any> {
+    return this.http.delete(`${this.apiUrl}/cart/${this.getCartId()}/reservations/${productId}`);
+  }
+
   private updateCart(cartItems: CartItem[]): void {
     this.cartItemsSubject.next(cartItems);
     this.computeCartTotals();
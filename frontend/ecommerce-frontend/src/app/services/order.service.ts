@@ -0,0 +1,32 @@
+import { Injectable } from '@angular/core';
+import { HttpClient } from '@angular/common/http';
+import { Observable } from 'rxjs';
+
+export interface OrderItemRequest {
+  productId: number;
+  quantity: number;
+  unitPrice: number;
+}
+
+export interface OrderRequest {
+  cartId?: string;
+  items: OrderItemRequest[];
+  shippingAddress: string;
+  shippingCity: string;
+  shippingState?: string;
+  shippingCountry?: string;
+  shippingZipCode?: string;
+}
+
+@Injectable({
+  providedIn: 'root'
+})
+export class OrderService {
+  private apiUrl = 'http://localhost:8080/api';
+
+  constructor(private http: HttpClient) {}
+
+  placeOrder(order: OrderRequest): Observable<any> {
+    return this.http.post(`${this.apiUrl}/orders`, order);
+  }
+}
@@ -0,0 +1,72 @@
+// Catalog browsing load for k6 (https://k6.io): offset and category listings,
+// keyword search and product pages, the read traffic that blocks on MySQL.
+//
+//   k6 run -e BASE_URL=http://localhost:8080/api loadtest/catalog.js
+//
+// VUS, DURATION and THINK_MS override the defaults below. Run it through
+// compare-threads.sh to compare Tomcat's thread pool with virtual threads.
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api';
+const THINK_SECONDS = Number(__ENV.THINK_MS || 0) / 1000;
+const SEARCH_TERMS = ['phone', 'case', 'book', 'shirt', 'lamp', 'cable', 'mug', 'chair'];
+
+export const options = {
+    scenarios: {
+        browse: {
+            executor: 'ramping-vus',
+            // More concurrent users than Tomcat's 200 platform threads, so the two modes differ
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 400) },
+                { duration: __ENV.DURATION || '2m', target: Number(__ENV.VUS || 400) },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+// Reads the ids to request once, so every virtual user hits real products and categories
+export function setup() {
+    const products = http.get(`${BASE_URL}/products?page=0&size=100`).json('content');
+    const categories = http.get(`${BASE_URL}/categories`).json();
+    if (!products || products.length === 0) {
+        throw new Error(`No products at ${BASE_URL}/products; seed the catalog first`);
+    }
+    return {
+        productIds: products.map((p) => p.id),
+        categoryIds: categories.map((c) => c.id),
+        pages: Math.max(1, Math.floor(http.get(`${BASE_URL}/products?page=0&size=20`).json('totalElements') / 20)),
+    };
+}
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+export default function (data) {
+    const roll = Math.random();
+    let res;
+    if (roll < 0.35) {
+        res = http.get(`${BASE_URL}/products?page=${Math.floor(Math.random() * data.pages)}&size=20`,
+            { tags: { name: 'listing' } });
+    } else if (roll < 0.55) {
+        res = http.get(`${BASE_URL}/products/category/${pick(data.categoryIds)}?page=0&size=20`,
+            { tags: { name: 'category' } });
+    } else if (roll < 0.75) {
+        res = http.get(`${BASE_URL}/products/search?keyword=${pick(SEARCH_TERMS)}&page=0&size=20`,
+            { tags: { name: 'search' } });
+    } else {
+        res = http.get(`${BASE_URL}/products/${pick(data.productIds)}`, { tags: { name: 'product' } });
+    }
+    check(res, { 'status is 200': (r) => r.status === 200 });
+    if (THINK_SECONDS > 0) {
+        sleep(THINK_SECONDS);
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Runs catalog.js against the backend twice, once on Tomcat's platform thread
+# pool and once with the virtual-threads profile, and prints the throughput
+# and p99 latency of each run side by side.
+#
+# Needs JDK 21 (the java21 Maven profile), k6, jq and the MySQL database from
+# the README, seeded with a catalog. POOL_SIZE sets the connection pool of
+# both runs (50 by default). Extra arguments are passed to k6, e.g.
+#
+#   loadtest/compare-threads.sh -e VUS=800 -e DURATION=5m
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS="$ROOT/loadtest/results"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:$PORT/api"
+
+if ! java -version 2>&1 | grep -Eq 'version "(2[1-9]|[3-9][0-9])'; then
+    echo "Virtual threads need JDK 21 or later on the PATH" >&2
+    exit 1
+fi
+
+mkdir -p "$RESULTS"
+(cd "$ROOT/backend" && mvn -B -q -Pjava21 -DskipTests package)
+JAR="$(ls "$ROOT"/backend/target/ecommerce-backend-*.jar | grep -v '\.original$' | head -n 1)"
+
+run() {
+    local mode="$1" profile="$2"
+    shift 2
+    echo "== $mode"
+    # Both runs get the same connection pool, so only the threading model differs
+    java ${JAVA_OPTS:-} -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profile" \
+        --spring.datasource.hikari.maximum-pool-size="${POOL_SIZE:-50}" > "$RESULTS/$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    # The search index must be built before the run, or searches measure the fallback
+    for _ in $(seq 1 120); do
+        if grep -q "Indexed .* products for search" "$RESULTS/$mode.log" \
+                && curl -fs "$BASE_URL/categories" > /dev/null; then
+            break
+        fi
+        kill -0 "$pid" 2>/dev/null || { echo "Backend exited, see $RESULTS/$mode.log"; exit 1; }
+        sleep 1
+    done
+
+    k6 run --quiet -e BASE_URL="$BASE_URL" --summary-export "$RESULTS/$mode.json" "$@" \
+        "$ROOT/loadtest/catalog.js"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+run platform default "$@"
+run virtual virtual-threads "$@"
+
+printf '\n%-10s %12s %10s %10s\n' mode 'requests/s' 'p50 ms' 'p99 ms'
+for mode in platform virtual; do
+    jq -r --arg mode "$mode" '[$mode, .metrics.http_reqs.rate,
+            .metrics.http_req_duration["p(50)"], .metrics.http_req_duration["p(99)"]]
+        | "\(.[0]) \(.[1] | floor) \(.[2] * 10 | floor / 10) \(.[3] * 10 | floor / 10)"' \
+        "$RESULTS/$mode.json" | xargs printf '%-10s %12s %10s %10s\n'
+done